@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The work item method parameter. The parameter value is taken from the work
+ * item parameters and converted to the type of the method parameter.
+ * <pre>
+ * &#64;WorkItem(name = "order")
+ * public Map&lt;String, Object&gt; order(&#64;Param("orderId") long id, &#64;Param(value = "note", required = true) String note) {
+ * </pre>
+ *
+ * @author Andrej_Petras
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Param {
+
+    /**
+     * The no default value. The empty string is the valid default value, so
+     * the marker is the null character.
+     */
+    String NO_DEFAULT = "\u0000";
+
+    /**
+     * The work item parameter name.
+     *
+     * @return the work item parameter name.
+     */
+    String value();
+
+    /**
+     * The required flag. The execution fails if the required parameter is
+     * missing in the work item.
+     *
+     * @return the required flag.
+     */
+    boolean required() default false;
+
+    /**
+     * The default value for the missing parameter. The value is converted to
+     * the parameter type when the work item method is registered. The
+     * empty string is the valid default value. The missing primitive
+     * parameter without the default value is zero.
+     *
+     * @return the default value.
+     */
+    String defaultValue() default NO_DEFAULT;
+}
@@ -42,4 +42,227 @@ public @interface WorkItem {
      * @return the abort flag.
      */
     boolean abort() default false;
+
+    /**
+     * The asynchronous flag. The asynchronous work item is executed in the
+     * asynchronous executor and the work item is completed after the method
+     * finished.
+     *
+     * @return the asynchronous flag.
+     */
+    boolean async() default false;
+
+    /**
+     * The maximum number of concurrent asynchronous executions of the work
+     * item. The asynchronous executions over the maximum wait in the queue of
+     * the work item and are handed to the execution backend when the running
+     * execution finishes, so they do not occupy the backend threads. The
+     * value <code>0</code> means no limit.
+     * <p>
+     * The maximum concurrency controls only the dispatch of the asynchronous
+     * executions, the {@link #limit()} guards the method call of the
+     * synchronous and asynchronous executions in the executing thread. For
+     * the asynchronous work item with both values the limit should not be
+     * lower than the maximum concurrency, otherwise the dispatched executions
+     * are rejected or wait in the backend threads.
+     *
+     * @return the maximum number of concurrent executions.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * The maximum batch size. The batch method has one <code>List</code> of
+     * the execution data parameter and returns the <code>List</code> of the
+     * results in the same order. The batch with the different number of
+     * results fails all work items of the batch. The value <code>0</code>
+     * disables the batch mode.
+     *
+     * @return the maximum batch size.
+     */
+    int batch() default 0;
+
+    /**
+     * The batch window in milliseconds. The batch is executed when the batch
+     * size is reached or the window elapsed after the first pending work
+     * item.
+     *
+     * @return the batch window in milliseconds.
+     */
+    long batchWindow() default 100;
+
+    /**
+     * The result cache flag. The result of the method is cached by the cache
+     * key parameters.
+     *
+     * @return the result cache flag.
+     */
+    boolean cache() default false;
+
+    /**
+     * The parameter names of the cache key. The empty array means all
+     * parameters of the work item.
+     *
+     * @return the parameter names of the cache key.
+     */
+    String[] cacheKeys() default {};
+
+    /**
+     * The time to live of the cached result in milliseconds.
+     *
+     * @return the time to live of the cached result.
+     */
+    long cacheTtl() default 60000;
+
+    /**
+     * The maximum number of the cached results.
+     *
+     * @return the maximum number of the cached results.
+     */
+    int cacheSize() default 1000;
+
+    /**
+     * The maximum number of concurrent executions of the work item. The
+     * execution over the limit is rejected or waits for the free slot in the
+     * executing thread. The limit applies to the synchronous and asynchronous
+     * executions, see {@link #maxConcurrency()} for the queueing of the
+     * asynchronous executions. The value <code>0</code> means no limit.
+     *
+     * @return the maximum number of concurrent executions.
+     */
+    int limit() default 0;
+
+    /**
+     * The adaptive limit flag. The adaptive limit is adjusted between
+     * <code>1</code> and the {@link #limit()} by the observed latency and
+     * failures of the work item.
+     *
+     * @return the adaptive limit flag.
+     */
+    boolean adaptiveLimit() default false;
+
+    /**
+     * The maximum wait time in milliseconds for the free execution slot. The
+     * value <code>0</code> rejects the execution immediately when the limit
+     * is reached.
+     *
+     * @return the maximum wait time in milliseconds.
+     */
+    long limitWait() default 0;
+
+    /**
+     * The rate limit in executions per second. The synchronous execution over
+     * the rate limit fails and the asynchronous execution is delayed. The
+     * value <code>0</code> means no rate limit.
+     *
+     * @return the rate limit in executions per second.
+     */
+    double rate() default 0;
+
+    /**
+     * The maximum number of executions in the burst over the rate limit. The
+     * value <code>0</code> means the number of executions per second.
+     *
+     * @return the maximum number of executions in the burst.
+     */
+    int rateBurst() default 0;
+
+    /**
+     * The execution timeout in milliseconds. The executing thread is
+     * interrupted after the timeout and the execution fails with the timeout
+     * error. The value <code>0</code> means no timeout.
+     *
+     * @return the execution timeout in milliseconds.
+     */
+    long timeout() default 0;
+
+    /**
+     * The maximum number of the execution attempts including the first
+     * attempt. The failed execution is retried in the backend thread after
+     * the exponential backoff delay and the work item stays pending until
+     * the retry completes. The value <code>0</code> or <code>1</code> means
+     * no retry.
+     *
+     * @return the maximum number of the execution attempts.
+     */
+    int retryAttempts() default 0;
+
+    /**
+     * The initial retry delay in milliseconds. The delay doubles with each
+     * attempt.
+     *
+     * @return the initial retry delay in milliseconds.
+     */
+    long retryDelay() default 100;
+
+    /**
+     * The maximum retry delay in milliseconds.
+     *
+     * @return the maximum retry delay in milliseconds.
+     */
+    long retryMaxDelay() default 10000;
+
+    /**
+     * The list of the retryable exceptions. The empty list retries all
+     * exceptions.
+     *
+     * @return the list of the retryable exceptions.
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+
+    /**
+     * The size of the circuit breaker sliding window. The circuit opens when
+     * the window of the last executions is full and the failure rate or the
+     * slow call rate reaches the threshold. The value <code>0</code> means no
+     * circuit breaker.
+     *
+     * @return the number of the executions in the sliding window.
+     */
+    int circuitWindow() default 0;
+
+    /**
+     * The failure rate threshold of the circuit breaker in percent.
+     *
+     * @return the failure rate threshold in percent.
+     */
+    int circuitFailureRate() default 50;
+
+    /**
+     * The slow call threshold of the circuit breaker in milliseconds. The
+     * value <code>0</code> means no slow call detection.
+     *
+     * @return the slow call threshold in milliseconds.
+     */
+    long circuitSlowCall() default 0;
+
+    /**
+     * The slow call rate threshold of the circuit breaker in percent.
+     *
+     * @return the slow call rate threshold in percent.
+     */
+    int circuitSlowRate() default 100;
+
+    /**
+     * The time in milliseconds in which the open circuit rejects the
+     * executions before the probe executions are permitted.
+     *
+     * @return the open time in milliseconds.
+     */
+    long circuitOpenTime() default 10000;
+
+    /**
+     * The number of the probe executions which close or open the half open
+     * circuit.
+     *
+     * @return the number of the probe executions.
+     */
+    int circuitProbes() default 3;
+
+    /**
+     * The fallback work item of the same process executed instead of the
+     * rejected execution when the circuit is open. The name of the work item
+     * itself executes its abort method. The empty name rejects the execution.
+     *
+     * @return the fallback work item name.
+     */
+    String fallback() default "";
 }
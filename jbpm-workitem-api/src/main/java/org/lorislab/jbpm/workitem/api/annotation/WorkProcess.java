@@ -36,4 +36,19 @@ public @interface WorkProcess {
      */
     String name();
 
+    /**
+     * The service scope. The shared instance of the singleton scope is called
+     * concurrently and has to be thread-safe.
+     *
+     * @return the service scope.
+     */
+    WorkProcessScope scope() default WorkProcessScope.SINGLETON;
+
+    /**
+     * The maximum number of instances of the pooled scope. The value 0 means
+     * the number of processors.
+     *
+     * @return the pool size.
+     */
+    int poolSize() default 0;
 }
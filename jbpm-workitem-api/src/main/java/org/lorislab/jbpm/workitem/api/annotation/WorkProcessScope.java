@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.annotation;
+
+/**
+ * The work process service scope.
+ *
+ * @author Andrej_Petras
+ */
+public enum WorkProcessScope {
+
+    /**
+     * One shared instance created when the deployment is loaded.
+     */
+    SINGLETON,
+
+    /**
+     * One shared instance created for the first work item.
+     */
+    LAZY,
+
+    /**
+     * One instance per thread. The service does not have to be thread-safe.
+     */
+    THREAD,
+
+    /**
+     * The bounded pool of instances. Every instance is used by one thread at
+     * a time. The service does not have to be thread-safe.
+     */
+    POOLED;
+}
@@ -33,12 +33,97 @@ public interface ExecutionData extends Serializable {
     public String getDeploymentId();
 
     /**
-     * Gets the parameters.
+     * Gets the parameters. The map is the parameter map of the work item and
+     * should not be modified.
      *
      * @return the parameters.
      */
     public Map<String, Object> getParameters();
 
+    /**
+     * Gets the parameter value.
+     *
+     * @param name the parameter name.
+     * @return the parameter value or <code>null</code>.
+     */
+    public Object get(String name);
+
+    /**
+     * Gets the parameter value for the parameter key.
+     *
+     * @param <T> the parameter type.
+     * @param key the parameter key.
+     * @return the converted parameter value or <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public <T> T get(ParameterKey<T> key);
+
+    /**
+     * Gets the parameter value converted to the type.
+     *
+     * @param <T> the parameter type.
+     * @param name the parameter name.
+     * @param type the parameter type.
+     * @return the converted parameter value or <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public <T> T getAs(String name, Class<T> type);
+
+    /**
+     * Gets the string parameter value.
+     *
+     * @param name the parameter name.
+     * @return the string value or <code>null</code>.
+     */
+    public String getString(String name);
+
+    /**
+     * Gets the long parameter value.
+     *
+     * @param name the parameter name.
+     * @return the long value or <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public Long getLong(String name);
+
+    /**
+     * Gets the long parameter value.
+     *
+     * @param name the parameter name.
+     * @param defaultValue the default value for the missing parameter.
+     * @return the long value or the default value.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public long getLong(String name, long defaultValue);
+
+    /**
+     * Gets the integer parameter value.
+     *
+     * @param name the parameter name.
+     * @return the integer value or <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public Integer getInteger(String name);
+
+    /**
+     * Gets the integer parameter value.
+     *
+     * @param name the parameter name.
+     * @param defaultValue the default value for the missing parameter.
+     * @return the integer value or the default value.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public int getInt(String name, int defaultValue);
+
+    /**
+     * Gets the boolean parameter value.
+     *
+     * @param name the parameter name.
+     * @return the boolean value or <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    public Boolean getBoolean(String name);
+
     /**
      * Gets the item name.
      *
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.model;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.annotation.Param;
+
+/**
+ * The work item method parameter binding. The converter, the default value
+ * and the required check are resolved once when the work item method is
+ * registered.
+ *
+ * @author Andrej_Petras
+ */
+public final class ParameterBinding {
+
+    /**
+     * The empty bindings.
+     */
+    private static final ParameterBinding[] EMPTY = new ParameterBinding[0];
+
+    /**
+     * The execution data binding.
+     */
+    private static final ParameterBinding DATA = new ParameterBinding(null, false, null);
+
+    /**
+     * The zero values of the primitive types.
+     */
+    private static final Map<Class<?>, Object> ZERO = new HashMap<>();
+
+    static {
+        ZERO.put(Long.TYPE, 0L);
+        ZERO.put(Integer.TYPE, 0);
+        ZERO.put(Double.TYPE, 0d);
+        ZERO.put(Float.TYPE, 0f);
+        ZERO.put(Short.TYPE, (short) 0);
+        ZERO.put(Byte.TYPE, (byte) 0);
+        ZERO.put(Character.TYPE, (char) 0);
+        ZERO.put(Boolean.TYPE, Boolean.FALSE);
+    }
+
+    /**
+     * The parameter key.
+     */
+    private final ParameterKey<?> key;
+
+    /**
+     * The required flag.
+     */
+    private final boolean required;
+
+    /**
+     * The default value.
+     */
+    private final Object defaultValue;
+
+    /**
+     * The default constructor.
+     *
+     * @param key the parameter key or <code>null</code> for the execution
+     * data.
+     * @param required the required flag.
+     * @param defaultValue the default value.
+     */
+    private ParameterBinding(ParameterKey<?> key, boolean required, Object defaultValue) {
+        this.key = key;
+        this.required = required;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Creates the parameter binding.
+     *
+     * @param name the work item parameter name.
+     * @param type the method parameter type.
+     * @param required the required flag.
+     * @param defaultValue the default value or {@link Param#NO_DEFAULT}.
+     * @return the parameter binding.
+     * @throws IllegalArgumentException if the default value could not be
+     * converted.
+     */
+    public static ParameterBinding create(String name, Class<?> type, boolean required, String defaultValue) {
+        if (ExecutionData.class.equals(type)) {
+            return DATA;
+        }
+        ParameterKey<?> key = ParameterKey.of(name, type);
+        Object value = null;
+        if (defaultValue != null && !Param.NO_DEFAULT.equals(defaultValue)) {
+            value = key.convert(defaultValue);
+        } else if (type.isPrimitive()) {
+            value = ZERO.get(type);
+        }
+        return new ParameterBinding(key, required, value);
+    }
+
+    /**
+     * Creates the parameter bindings of the work item method. The method
+     * parameter has to be the execution data or annotated with {@link Param}.
+     *
+     * @param method the work item method.
+     * @return the parameter bindings or <code>null</code> if the method has
+     * not supported parameter.
+     * @throws IllegalArgumentException if the default value could not be
+     * converted.
+     */
+    public static ParameterBinding[] create(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length == 0) {
+            return EMPTY;
+        }
+        Annotation[][] annotations = method.getParameterAnnotations();
+        ParameterBinding[] result = new ParameterBinding[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (ExecutionData.class.equals(types[i])) {
+                result[i] = DATA;
+            } else {
+                Param param = findParam(annotations[i]);
+                if (param == null) {
+                    return null;
+                }
+                result[i] = create(param.value(), types[i], param.required(), param.defaultValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the parameter annotation.
+     *
+     * @param annotations the parameter annotations.
+     * @return the parameter annotation or <code>null</code>.
+     */
+    private static Param findParam(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Param) {
+                return (Param) annotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns <code>true</code> if the binding is the execution data.
+     *
+     * @return <code>true</code> if the binding is the execution data.
+     */
+    public boolean isData() {
+        return key == null;
+    }
+
+    /**
+     * Gets the parameter key.
+     *
+     * @return the parameter key or <code>null</code> for the execution data.
+     */
+    public ParameterKey<?> getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the method argument from the execution data.
+     *
+     * @param data the execution data.
+     * @return the method argument.
+     * @throws IllegalArgumentException if the required parameter is missing or
+     * the value could not be converted.
+     */
+    public Object get(ExecutionData data) {
+        if (key == null) {
+            return data;
+        }
+        Object value = data.get(key);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("The required parameter " + key.getName() + " is missing.");
+            }
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        if (key == null) {
+            return ExecutionData.class.getSimpleName();
+        }
+        return key.toString();
+    }
+}
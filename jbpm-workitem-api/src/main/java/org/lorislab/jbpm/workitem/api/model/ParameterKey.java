@@ -0,0 +1,375 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The parameter key. The key contains the parameter name and the converter
+ * for the parameter type, which is selected once when the key is created.
+ * The key is intended for constants of the service class.
+ * <pre>
+ * private static final ParameterKey&lt;Long&gt; AMOUNT = ParameterKey.of("amount", Long.class);
+ * ...
+ * Long amount = data.get(AMOUNT);
+ * </pre>
+ *
+ * @param <T> the parameter type.
+ *
+ * @author Andrej_Petras
+ */
+public final class ParameterKey<T> implements Serializable {
+
+    /**
+     * The UID for this class.
+     */
+    private static final long serialVersionUID = 2818424981458711309L;
+
+    /**
+     * The parameter name.
+     */
+    private final String name;
+
+    /**
+     * The parameter type.
+     */
+    private final Class<T> type;
+
+    /**
+     * The parameter converter.
+     */
+    private final Converter converter;
+
+    /**
+     * The default constructor.
+     *
+     * @param name the parameter name.
+     * @param type the parameter type.
+     */
+    private ParameterKey(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+        this.converter = Converter.forType(type);
+    }
+
+    /**
+     * Creates the parameter key.
+     *
+     * @param <T> the parameter type.
+     * @param name the parameter name.
+     * @param type the parameter type.
+     * @return the parameter key.
+     */
+    public static <T> ParameterKey<T> of(String name, Class<T> type) {
+        if (name == null || type == null) {
+            throw new IllegalArgumentException("The parameter name and type are required.");
+        }
+        return new ParameterKey<>(name, type);
+    }
+
+    /**
+     * Gets the parameter name.
+     *
+     * @return the parameter name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the parameter type.
+     *
+     * @return the parameter type.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Converts the parameter value to the parameter type.
+     *
+     * @param value the parameter value.
+     * @return the converted value or <code>null</code> if the value is
+     * <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    @SuppressWarnings("unchecked")
+    public T convert(Object value) {
+        return (T) converter.convert(name, value, type);
+    }
+
+    /**
+     * Converts the parameter value to the type.
+     *
+     * @param <T> the parameter type.
+     * @param name the parameter name.
+     * @param value the parameter value.
+     * @param type the parameter type.
+     * @return the converted value or <code>null</code> if the value is
+     * <code>null</code>.
+     * @throws IllegalArgumentException if the value could not be converted.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T convert(String name, Object value, Class<T> type) {
+        return (T) Converter.forType(type).convert(name, value, type);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        return name + ":" + type.getSimpleName();
+    }
+
+    /**
+     * The parameter converter.
+     */
+    private enum Converter {
+
+        /**
+         * The string converter.
+         */
+        STRING {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                return value.toString();
+            }
+        },
+        /**
+         * The long converter.
+         */
+        LONG {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).longValue();
+                }
+                return Long.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The integer converter.
+         */
+        INTEGER {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).intValue();
+                }
+                return Integer.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The double converter.
+         */
+        DOUBLE {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                }
+                return Double.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The float converter.
+         */
+        FLOAT {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).floatValue();
+                }
+                return Float.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The short converter.
+         */
+        SHORT {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).shortValue();
+                }
+                return Short.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The byte converter.
+         */
+        BYTE {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof Number) {
+                    return ((Number) value).byteValue();
+                }
+                return Byte.valueOf(value.toString().trim());
+            }
+        },
+        /**
+         * The character converter for the value with one character.
+         */
+        CHARACTER {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                String tmp = value.toString();
+                if (tmp.length() != 1) {
+                    throw new IllegalArgumentException(tmp);
+                }
+                return tmp.charAt(0);
+            }
+        },
+        /**
+         * The boolean converter.
+         */
+        BOOLEAN {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                String tmp = value.toString().trim();
+                if ("true".equalsIgnoreCase(tmp)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(tmp)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException(tmp);
+            }
+        },
+        /**
+         * The big decimal converter.
+         */
+        BIG_DECIMAL {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                if (value instanceof BigInteger) {
+                    return new BigDecimal((BigInteger) value);
+                }
+                if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    return BigDecimal.valueOf(((Number) value).longValue());
+                }
+                return new BigDecimal(value.toString().trim());
+            }
+        },
+        /**
+         * The cast converter for the other types.
+         */
+        CAST {
+            @Override
+            Object convertValue(Object value, Class<?> type) {
+                throw new IllegalArgumentException(value.getClass().getName());
+            }
+        };
+
+        /**
+         * Converts the value.
+         *
+         * @param name the parameter name.
+         * @param value the value.
+         * @param type the target type.
+         * @return the converted value.
+         */
+        Object convert(String name, Object value, Class<?> type) {
+            if (value == null) {
+                return null;
+            }
+            Class<?> target = wrap(type);
+            if (target.isInstance(value)) {
+                return value;
+            }
+            try {
+                return convertValue(value, target);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("The parameter " + name + " of type " + value.getClass().getName()
+                        + " could not be converted to " + type.getName(), ex);
+            }
+        }
+
+        /**
+         * Converts the value which is not instance of the type.
+         *
+         * @param value the value.
+         * @param type the target type.
+         * @return the converted value.
+         */
+        abstract Object convertValue(Object value, Class<?> type);
+
+        /**
+         * Gets the converter for the type.
+         *
+         * @param type the type.
+         * @return the converter.
+         */
+        static Converter forType(Class<?> type) {
+            Class<?> tmp = wrap(type);
+            if (tmp == String.class) {
+                return STRING;
+            } else if (tmp == Long.class) {
+                return LONG;
+            } else if (tmp == Integer.class) {
+                return INTEGER;
+            } else if (tmp == Double.class) {
+                return DOUBLE;
+            } else if (tmp == Float.class) {
+                return FLOAT;
+            } else if (tmp == Short.class) {
+                return SHORT;
+            } else if (tmp == Byte.class) {
+                return BYTE;
+            } else if (tmp == Character.class) {
+                return CHARACTER;
+            } else if (tmp == Boolean.class) {
+                return BOOLEAN;
+            } else if (tmp == BigDecimal.class) {
+                return BIG_DECIMAL;
+            }
+            return CAST;
+        }
+
+        /**
+         * Gets the wrapper type of the primitive type.
+         *
+         * @param type the type.
+         * @return the wrapper type or the type.
+         */
+        static Class<?> wrap(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return type;
+            }
+            if (type == Long.TYPE) {
+                return Long.class;
+            } else if (type == Integer.TYPE) {
+                return Integer.class;
+            } else if (type == Double.TYPE) {
+                return Double.class;
+            } else if (type == Boolean.TYPE) {
+                return Boolean.class;
+            } else if (type == Float.TYPE) {
+                return Float.class;
+            } else if (type == Short.TYPE) {
+                return Short.class;
+            } else if (type == Byte.TYPE) {
+                return Byte.class;
+            } else if (type == Character.TYPE) {
+                return Character.class;
+            }
+            return type;
+        }
+    }
+}
@@ -0,0 +1,856 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.processor;
+
+import org.lorislab.jbpm.workitem.api.annotation.WorkProcessScope;
+
+/**
+ * The work item definition. The definition contains the work item method and
+ * the attributes of the work item and work process annotations. The work
+ * process processor writes the definitions to the work process index.
+ *
+ * @author Andrej_Petras
+ */
+public class WorkItemDefinition {
+
+    /**
+     * The service class name.
+     */
+    private String serviceClass;
+
+    /**
+     * The work process name.
+     */
+    private String process;
+
+    /**
+     * The service scope.
+     */
+    private WorkProcessScope scope = WorkProcessScope.SINGLETON;
+
+    /**
+     * The service pool size.
+     */
+    private int poolSize;
+
+    /**
+     * The work item name.
+     */
+    private String workItem;
+
+    /**
+     * The method name.
+     */
+    private String method;
+
+    /**
+     * The method parameter type names.
+     */
+    private String[] parameterTypes = new String[0];
+
+    /**
+     * The abort flag.
+     */
+    private boolean abort;
+
+    /**
+     * The input flag.
+     */
+    private boolean input;
+
+    /**
+     * The output flag.
+     */
+    private boolean output;
+
+    /**
+     * The asynchronous flag.
+     */
+    private boolean async;
+
+    /**
+     * The maximum number of concurrent executions.
+     */
+    private int maxConcurrency;
+
+    /**
+     * The batch size.
+     */
+    private int batch;
+
+    /**
+     * The batch window in milliseconds.
+     */
+    private long batchWindow;
+
+    /**
+     * The cache flag.
+     */
+    private boolean cache;
+
+    /**
+     * The cache key parameter names.
+     */
+    private String[] cacheKeys = new String[0];
+
+    /**
+     * The cache time to live in milliseconds.
+     */
+    private long cacheTtl;
+
+    /**
+     * The cache size.
+     */
+    private int cacheSize;
+
+    /**
+     * The concurrency limit.
+     */
+    private int limit;
+
+    /**
+     * The adaptive limit flag.
+     */
+    private boolean adaptiveLimit;
+
+    /**
+     * The limit wait time in milliseconds.
+     */
+    private long limitWait;
+
+    /**
+     * The rate limit in executions per second.
+     */
+    private double rate;
+
+    /**
+     * The rate limit bucket size.
+     */
+    private int rateBurst;
+
+    /**
+     * The timeout in milliseconds.
+     */
+    private long timeout;
+
+    /**
+     * The maximum number of the execution attempts.
+     */
+    private int retryAttempts;
+
+    /**
+     * The initial retry delay in milliseconds.
+     */
+    private long retryDelay;
+
+    /**
+     * The maximum retry delay in milliseconds.
+     */
+    private long retryMaxDelay;
+
+    /**
+     * The list of the retryable exception class names.
+     */
+    private String[] retryOn = new String[0];
+
+    /**
+     * The size of the circuit breaker sliding window.
+     */
+    private int circuitWindow;
+
+    /**
+     * The failure rate threshold in percent.
+     */
+    private int circuitFailureRate;
+
+    /**
+     * The slow call threshold in milliseconds.
+     */
+    private long circuitSlowCall;
+
+    /**
+     * The slow call rate threshold in percent.
+     */
+    private int circuitSlowRate;
+
+    /**
+     * The circuit open time in milliseconds.
+     */
+    private long circuitOpenTime;
+
+    /**
+     * The number of the circuit probe executions.
+     */
+    private int circuitProbes;
+
+    /**
+     * The fallback work item name.
+     */
+    private String fallback = "";
+
+    /**
+     * The generated dispatcher method index.
+     */
+    private int dispatcherIndex = -1;
+
+    /**
+     * Gets the service class name.
+     *
+     * @return the service class name.
+     */
+    public String getServiceClass() {
+        return serviceClass;
+    }
+
+    /**
+     * Sets the service class name.
+     *
+     * @param serviceClass the service class name.
+     */
+    public void setServiceClass(String serviceClass) {
+        this.serviceClass = serviceClass;
+    }
+
+    /**
+     * Gets the work process name.
+     *
+     * @return the work process name.
+     */
+    public String getProcess() {
+        return process;
+    }
+
+    /**
+     * Sets the work process name.
+     *
+     * @param process the work process name.
+     */
+    public void setProcess(String process) {
+        this.process = process;
+    }
+
+    /**
+     * Gets the service scope.
+     *
+     * @return the service scope.
+     */
+    public WorkProcessScope getScope() {
+        return scope;
+    }
+
+    /**
+     * Sets the service scope.
+     *
+     * @param scope the service scope.
+     */
+    public void setScope(WorkProcessScope scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * Gets the service pool size.
+     *
+     * @return the service pool size.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Sets the service pool size.
+     *
+     * @param poolSize the service pool size.
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Gets the work item name.
+     *
+     * @return the work item name.
+     */
+    public String getWorkItem() {
+        return workItem;
+    }
+
+    /**
+     * Sets the work item name.
+     *
+     * @param workItem the work item name.
+     */
+    public void setWorkItem(String workItem) {
+        this.workItem = workItem;
+    }
+
+    /**
+     * Gets the method name.
+     *
+     * @return the method name.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Sets the method name.
+     *
+     * @param method the method name.
+     */
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * Gets the method parameter type names.
+     *
+     * @return the method parameter type names.
+     */
+    public String[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Sets the method parameter type names.
+     *
+     * @param parameterTypes the method parameter type names.
+     */
+    public void setParameterTypes(String[] parameterTypes) {
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Gets the abort flag.
+     *
+     * @return the abort flag.
+     */
+    public boolean isAbort() {
+        return abort;
+    }
+
+    /**
+     * Sets the abort flag.
+     *
+     * @param abort the abort flag.
+     */
+    public void setAbort(boolean abort) {
+        this.abort = abort;
+    }
+
+    /**
+     * Gets the input flag.
+     *
+     * @return the input flag.
+     */
+    public boolean isInput() {
+        return input;
+    }
+
+    /**
+     * Sets the input flag.
+     *
+     * @param input the input flag.
+     */
+    public void setInput(boolean input) {
+        this.input = input;
+    }
+
+    /**
+     * Gets the output flag.
+     *
+     * @return the output flag.
+     */
+    public boolean isOutput() {
+        return output;
+    }
+
+    /**
+     * Sets the output flag.
+     *
+     * @param output the output flag.
+     */
+    public void setOutput(boolean output) {
+        this.output = output;
+    }
+
+    /**
+     * Gets the asynchronous flag.
+     *
+     * @return the asynchronous flag.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Sets the asynchronous flag.
+     *
+     * @param async the asynchronous flag.
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Gets the maximum number of concurrent executions.
+     *
+     * @return the maximum number of concurrent executions.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of concurrent executions.
+     *
+     * @param maxConcurrency the maximum number of concurrent executions.
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Gets the batch size.
+     *
+     * @return the batch size.
+     */
+    public int getBatch() {
+        return batch;
+    }
+
+    /**
+     * Sets the batch size.
+     *
+     * @param batch the batch size.
+     */
+    public void setBatch(int batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Gets the batch window in milliseconds.
+     *
+     * @return the batch window in milliseconds.
+     */
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Sets the batch window in milliseconds.
+     *
+     * @param batchWindow the batch window in milliseconds.
+     */
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    /**
+     * Gets the cache flag.
+     *
+     * @return the cache flag.
+     */
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * Sets the cache flag.
+     *
+     * @param cache the cache flag.
+     */
+    public void setCache(boolean cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache key parameter names.
+     *
+     * @return the cache key parameter names.
+     */
+    public String[] getCacheKeys() {
+        return cacheKeys;
+    }
+
+    /**
+     * Sets the cache key parameter names.
+     *
+     * @param cacheKeys the cache key parameter names.
+     */
+    public void setCacheKeys(String[] cacheKeys) {
+        this.cacheKeys = cacheKeys;
+    }
+
+    /**
+     * Gets the cache time to live in milliseconds.
+     *
+     * @return the cache time to live in milliseconds.
+     */
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * Sets the cache time to live in milliseconds.
+     *
+     * @param cacheTtl the cache time to live in milliseconds.
+     */
+    public void setCacheTtl(long cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Gets the cache size.
+     *
+     * @return the cache size.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the cache size.
+     *
+     * @param cacheSize the cache size.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Gets the concurrency limit.
+     *
+     * @return the concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the concurrency limit.
+     *
+     * @param limit the concurrency limit.
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the adaptive limit flag.
+     *
+     * @return the adaptive limit flag.
+     */
+    public boolean isAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    /**
+     * Sets the adaptive limit flag.
+     *
+     * @param adaptiveLimit the adaptive limit flag.
+     */
+    public void setAdaptiveLimit(boolean adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    /**
+     * Gets the limit wait time in milliseconds.
+     *
+     * @return the limit wait time in milliseconds.
+     */
+    public long getLimitWait() {
+        return limitWait;
+    }
+
+    /**
+     * Sets the limit wait time in milliseconds.
+     *
+     * @param limitWait the limit wait time in milliseconds.
+     */
+    public void setLimitWait(long limitWait) {
+        this.limitWait = limitWait;
+    }
+
+    /**
+     * Gets the rate limit in executions per second.
+     *
+     * @return the rate limit in executions per second.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the rate limit in executions per second.
+     *
+     * @param rate the rate limit in executions per second.
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Gets the rate limit bucket size.
+     *
+     * @return the rate limit bucket size.
+     */
+    public int getRateBurst() {
+        return rateBurst;
+    }
+
+    /**
+     * Sets the rate limit bucket size.
+     *
+     * @param rateBurst the rate limit bucket size.
+     */
+    public void setRateBurst(int rateBurst) {
+        this.rateBurst = rateBurst;
+    }
+
+    /**
+     * Gets the timeout in milliseconds.
+     *
+     * @return the timeout in milliseconds.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the timeout in milliseconds.
+     *
+     * @param timeout the timeout in milliseconds.
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets the maximum number of the execution attempts.
+     *
+     * @return the maximum number of the execution attempts.
+     */
+    public int getRetryAttempts() {
+        return retryAttempts;
+    }
+
+    /**
+     * Sets the maximum number of the execution attempts.
+     *
+     * @param retryAttempts the maximum number of the execution attempts.
+     */
+    public void setRetryAttempts(int retryAttempts) {
+        this.retryAttempts = retryAttempts;
+    }
+
+    /**
+     * Gets the initial retry delay in milliseconds.
+     *
+     * @return the initial retry delay in milliseconds.
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Sets the initial retry delay in milliseconds.
+     *
+     * @param retryDelay the initial retry delay in milliseconds.
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Gets the maximum retry delay in milliseconds.
+     *
+     * @return the maximum retry delay in milliseconds.
+     */
+    public long getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    /**
+     * Sets the maximum retry delay in milliseconds.
+     *
+     * @param retryMaxDelay the maximum retry delay in milliseconds.
+     */
+    public void setRetryMaxDelay(long retryMaxDelay) {
+        this.retryMaxDelay = retryMaxDelay;
+    }
+
+    /**
+     * Gets the list of the retryable exception class names.
+     *
+     * @return the list of the retryable exception class names.
+     */
+    public String[] getRetryOn() {
+        return retryOn;
+    }
+
+    /**
+     * Sets the list of the retryable exception class names.
+     *
+     * @param retryOn the list of the retryable exception class names.
+     */
+    public void setRetryOn(String[] retryOn) {
+        this.retryOn = retryOn;
+    }
+
+    /**
+     * Gets the size of the circuit breaker sliding window.
+     *
+     * @return the size of the circuit breaker sliding window.
+     */
+    public int getCircuitWindow() {
+        return circuitWindow;
+    }
+
+    /**
+     * Sets the size of the circuit breaker sliding window.
+     *
+     * @param circuitWindow the size of the circuit breaker sliding window.
+     */
+    public void setCircuitWindow(int circuitWindow) {
+        this.circuitWindow = circuitWindow;
+    }
+
+    /**
+     * Gets the failure rate threshold in percent.
+     *
+     * @return the failure rate threshold in percent.
+     */
+    public int getCircuitFailureRate() {
+        return circuitFailureRate;
+    }
+
+    /**
+     * Sets the failure rate threshold in percent.
+     *
+     * @param circuitFailureRate the failure rate threshold in percent.
+     */
+    public void setCircuitFailureRate(int circuitFailureRate) {
+        this.circuitFailureRate = circuitFailureRate;
+    }
+
+    /**
+     * Gets the slow call threshold in milliseconds.
+     *
+     * @return the slow call threshold in milliseconds.
+     */
+    public long getCircuitSlowCall() {
+        return circuitSlowCall;
+    }
+
+    /**
+     * Sets the slow call threshold in milliseconds.
+     *
+     * @param circuitSlowCall the slow call threshold in milliseconds.
+     */
+    public void setCircuitSlowCall(long circuitSlowCall) {
+        this.circuitSlowCall = circuitSlowCall;
+    }
+
+    /**
+     * Gets the slow call rate threshold in percent.
+     *
+     * @return the slow call rate threshold in percent.
+     */
+    public int getCircuitSlowRate() {
+        return circuitSlowRate;
+    }
+
+    /**
+     * Sets the slow call rate threshold in percent.
+     *
+     * @param circuitSlowRate the slow call rate threshold in percent.
+     */
+    public void setCircuitSlowRate(int circuitSlowRate) {
+        this.circuitSlowRate = circuitSlowRate;
+    }
+
+    /**
+     * Gets the circuit open time in milliseconds.
+     *
+     * @return the circuit open time in milliseconds.
+     */
+    public long getCircuitOpenTime() {
+        return circuitOpenTime;
+    }
+
+    /**
+     * Sets the circuit open time in milliseconds.
+     *
+     * @param circuitOpenTime the circuit open time in milliseconds.
+     */
+    public void setCircuitOpenTime(long circuitOpenTime) {
+        this.circuitOpenTime = circuitOpenTime;
+    }
+
+    /**
+     * Gets the number of the circuit probe executions.
+     *
+     * @return the number of the circuit probe executions.
+     */
+    public int getCircuitProbes() {
+        return circuitProbes;
+    }
+
+    /**
+     * Sets the number of the circuit probe executions.
+     *
+     * @param circuitProbes the number of the circuit probe executions.
+     */
+    public void setCircuitProbes(int circuitProbes) {
+        this.circuitProbes = circuitProbes;
+    }
+
+    /**
+     * Gets the fallback work item name.
+     *
+     * @return the fallback work item name.
+     */
+    public String getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Sets the fallback work item name.
+     *
+     * @param fallback the fallback work item name.
+     */
+    public void setFallback(String fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Gets the generated dispatcher method index.
+     *
+     * @return the generated dispatcher method index.
+     */
+    public int getDispatcherIndex() {
+        return dispatcherIndex;
+    }
+
+    /**
+     * Sets the generated dispatcher method index.
+     *
+     * @param dispatcherIndex the generated dispatcher method index.
+     */
+    public void setDispatcherIndex(int dispatcherIndex) {
+        this.dispatcherIndex = dispatcherIndex;
+    }
+}
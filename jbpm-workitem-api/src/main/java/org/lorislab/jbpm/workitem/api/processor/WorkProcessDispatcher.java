@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.processor;
+
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+
+/**
+ * The work process dispatcher. The implementation is generated by the
+ * {@link WorkProcessProcessor} for each work process class and calls the work
+ * item methods directly without reflection.
+ *
+ * @author Andrej_Petras
+ */
+public interface WorkProcessDispatcher {
+
+    /**
+     * Gets the method index for the work item.
+     *
+     * @param workItem the work item name.
+     * @param abort the abort flag.
+     * @return the method index or <code>-1</code> if the work item is not
+     * supported.
+     */
+    public int getIndex(String workItem, boolean abort);
+
+    /**
+     * Invokes the work item method.
+     *
+     * @param index the method index.
+     * @param service the service instance.
+     * @param data the execution data.
+     * @return the result of the method or <code>null</code>.
+     * @throws Exception if the method fails.
+     */
+    public Map<String, Object> invoke(int index, Object service, ExecutionData data) throws Exception;
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.api.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.lorislab.jbpm.workitem.api.annotation.WorkProcessScope;
+
+/**
+ * The work process index. The index is a text resource with one line per work
+ * item definition. The values are separated by the tab character and the list
+ * values by the comma character.
+ *
+ * @author Andrej_Petras
+ */
+public final class WorkProcessIndex {
+
+    /**
+     * The index file name.
+     */
+    public static final String FILE_NAME = "META-INF/org.lorislab.jbpm.workitem.index";
+
+    /**
+     * The index header.
+     */
+    private static final String HEADER = "#jbpm-workitem-index 7";
+
+    /**
+     * The number of values in the line.
+     */
+    private static final int VALUES = 31;
+
+    /**
+     * The empty flags value.
+     */
+    private static final String NO_FLAGS = "-";
+
+    /**
+     * The default constructor.
+     */
+    private WorkProcessIndex() {
+        // empty constructor
+    }
+
+    /**
+     * Reads the work item definitions.
+     *
+     * @param input the input stream.
+     * @return the list of work item definitions.
+     * @throws IOException if the read fails or the index format is not
+     * supported.
+     */
+    public static List<WorkItemDefinition> read(InputStream input) throws IOException {
+        List<WorkItemDefinition> result = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (line != null && !HEADER.equals(line)) {
+            throw new IOException("Not supported work process index format " + line);
+        }
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                result.add(parse(line));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the work item definitions.
+     *
+     * @param output the output stream.
+     * @param definitions the work item definitions.
+     */
+    public static void write(OutputStream output, Collection<WorkItemDefinition> definitions) {
+        PrintWriter pw = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        pw.print(HEADER);
+        pw.print('\n');
+        for (WorkItemDefinition d : definitions) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(escape(d.getServiceClass())).append('\t');
+            sb.append(escape(d.getProcess())).append('\t');
+            sb.append(d.getScope().name()).append('\t');
+            sb.append(d.getPoolSize()).append('\t');
+            sb.append(escape(d.getWorkItem())).append('\t');
+            sb.append(escape(d.getMethod())).append('\t');
+            sb.append(join(d.getParameterTypes())).append('\t');
+            sb.append(flags(d)).append('\t');
+            sb.append(d.getMaxConcurrency()).append('\t');
+            sb.append(d.getBatch()).append('\t');
+            sb.append(d.getBatchWindow()).append('\t');
+            sb.append(join(d.getCacheKeys())).append('\t');
+            sb.append(d.getCacheTtl()).append('\t');
+            sb.append(d.getCacheSize()).append('\t');
+            sb.append(d.getDispatcherIndex()).append('\t');
+            sb.append(d.getLimit()).append('\t');
+            sb.append(d.getLimitWait()).append('\t');
+            sb.append(d.getRate()).append('\t');
+            sb.append(d.getRateBurst()).append('\t');
+            sb.append(d.getTimeout()).append('\t');
+            sb.append(d.getRetryAttempts()).append('\t');
+            sb.append(d.getRetryDelay()).append('\t');
+            sb.append(d.getRetryMaxDelay()).append('\t');
+            sb.append(join(d.getRetryOn())).append('\t');
+            sb.append(d.getCircuitWindow()).append('\t');
+            sb.append(d.getCircuitFailureRate()).append('\t');
+            sb.append(d.getCircuitSlowCall()).append('\t');
+            sb.append(d.getCircuitSlowRate()).append('\t');
+            sb.append(d.getCircuitOpenTime()).append('\t');
+            sb.append(d.getCircuitProbes()).append('\t');
+            sb.append(escape(d.getFallback()));
+            pw.print(sb);
+            pw.print('\n');
+        }
+        pw.flush();
+    }
+
+    /**
+     * Parses the work item definition line.
+     *
+     * @param line the line.
+     * @return the work item definition.
+     * @throws IOException if the line is not valid.
+     */
+    private static WorkItemDefinition parse(String line) throws IOException {
+        String[] values = line.split("\t", -1);
+        if (values.length != VALUES) {
+            throw new IOException("Not valid work process index line " + line);
+        }
+        try {
+            WorkItemDefinition result = new WorkItemDefinition();
+            result.setServiceClass(unescape(values[0]));
+            result.setProcess(unescape(values[1]));
+            result.setScope(WorkProcessScope.valueOf(values[2]));
+            result.setPoolSize(Integer.parseInt(values[3]));
+            result.setWorkItem(unescape(values[4]));
+            result.setMethod(unescape(values[5]));
+            result.setParameterTypes(split(values[6]));
+            String flags = values[7];
+            result.setAbort(flags.indexOf('a') >= 0);
+            result.setInput(flags.indexOf('i') >= 0);
+            result.setOutput(flags.indexOf('o') >= 0);
+            result.setAsync(flags.indexOf('s') >= 0);
+            result.setCache(flags.indexOf('c') >= 0);
+            result.setMaxConcurrency(Integer.parseInt(values[8]));
+            result.setBatch(Integer.parseInt(values[9]));
+            result.setBatchWindow(Long.parseLong(values[10]));
+            result.setCacheKeys(split(values[11]));
+            result.setCacheTtl(Long.parseLong(values[12]));
+            result.setCacheSize(Integer.parseInt(values[13]));
+            result.setDispatcherIndex(Integer.parseInt(values[14]));
+            result.setAdaptiveLimit(flags.indexOf('l') >= 0);
+            result.setLimit(Integer.parseInt(values[15]));
+            result.setLimitWait(Long.parseLong(values[16]));
+            result.setRate(Double.parseDouble(values[17]));
+            result.setRateBurst(Integer.parseInt(values[18]));
+            result.setTimeout(Long.parseLong(values[19]));
+            result.setRetryAttempts(Integer.parseInt(values[20]));
+            result.setRetryDelay(Long.parseLong(values[21]));
+            result.setRetryMaxDelay(Long.parseLong(values[22]));
+            result.setRetryOn(split(values[23]));
+            result.setCircuitWindow(Integer.parseInt(values[24]));
+            result.setCircuitFailureRate(Integer.parseInt(values[25]));
+            result.setCircuitSlowCall(Long.parseLong(values[26]));
+            result.setCircuitSlowRate(Integer.parseInt(values[27]));
+            result.setCircuitOpenTime(Long.parseLong(values[28]));
+            result.setCircuitProbes(Integer.parseInt(values[29]));
+            result.setFallback(unescape(values[30]));
+            return result;
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Not valid work process index line " + line, ex);
+        }
+    }
+
+    /**
+     * Creates the flags value.
+     *
+     * @param definition the work item definition.
+     * @return the flags value.
+     */
+    private static String flags(WorkItemDefinition definition) {
+        StringBuilder sb = new StringBuilder();
+        if (definition.isAbort()) {
+            sb.append('a');
+        }
+        if (definition.isInput()) {
+            sb.append('i');
+        }
+        if (definition.isOutput()) {
+            sb.append('o');
+        }
+        if (definition.isAsync()) {
+            sb.append('s');
+        }
+        if (definition.isCache()) {
+            sb.append('c');
+        }
+        if (definition.isAdaptiveLimit()) {
+            sb.append('l');
+        }
+        if (sb.length() == 0) {
+            return NO_FLAGS;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Joins the escaped list values.
+     *
+     * @param values the values.
+     * @return the list value.
+     */
+    private static String join(String[] values) {
+        StringBuilder sb = new StringBuilder();
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(escape(values[i]));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits the list value.
+     *
+     * @param value the list value.
+     * @return the values.
+     */
+    private static String[] split(String value) {
+        if (value.isEmpty()) {
+            return new String[0];
+        }
+        String[] result = value.split(",", -1);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = unescape(result[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Escapes the separator characters.
+     *
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case ',':
+                    sb.append("\\c");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Unescapes the separator characters.
+     *
+     * @param value the escaped value.
+     * @return the value.
+     */
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                i++;
+                switch (value.charAt(i)) {
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'c':
+                        c = ',';
+                        break;
+                    default:
+                        c = value.charAt(i);
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
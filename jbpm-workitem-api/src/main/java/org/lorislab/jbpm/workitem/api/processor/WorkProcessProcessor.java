@@ -18,10 +18,18 @@ package org.lorislab.jbpm.workitem.api.processor;
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -29,26 +37,57 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic.Kind;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
+import org.lorislab.jbpm.workitem.api.annotation.Param;
+import org.lorislab.jbpm.workitem.api.annotation.WorkItem;
 import org.lorislab.jbpm.workitem.api.annotation.WorkProcess;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.model.ParameterBinding;
 
 /**
  * The work process processor.
  *
  * @author Andrej_Petras
  */
-@SupportedAnnotationTypes("org.lorislab.jbpm.extension.api.annotation.WorkProcess")
+@SupportedAnnotationTypes("org.lorislab.jbpm.workitem.api.annotation.WorkProcess")
 public class WorkProcessProcessor extends AbstractProcessor {
 
     /**
-     * The 
+     * The services file name.
      */
     public static final String FILE_NAME = "META-INF/services/" + WorkProcess.class.getName();
 
+    /**
+     * The dispatcher class name suffix.
+     */
+    public static final String DISPATCHER_SUFFIX = "_WorkProcessDispatcher";
+
+    /**
+     * The set of services.
+     */
+    private final Set<String> services = new HashSet<>();
+
+    /**
+     * The work item definitions by service class.
+     */
+    private final Map<String, List<WorkItemDefinition>> definitions = new LinkedHashMap<>();
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         try {
@@ -70,13 +109,14 @@ public class WorkProcessProcessor extends AbstractProcessor {
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
+            writeServices();
+            writeIndex();
             return false;
         }
 
-        Set<String> services = new HashSet();
         Elements elements = processingEnv.getElementUtils();
 
-        // create the list of services
+        // create the list of services and the dispatchers
         Set<? extends Element> es = roundEnv.getElementsAnnotatedWith(WorkProcess.class);
         for (Element element : es) {
             if (element.getKind().isClass()) {
@@ -84,10 +124,25 @@ public class WorkProcessProcessor extends AbstractProcessor {
                 if (anno != null) {
                     TypeElement type = (TypeElement) element;
                     String cn = elements.getBinaryName(type).toString();
+                    if (!checkWorkItems(type)) {
+                        continue;
+                    }
                     services.add(cn);
+                    List<ExecutableElement> methods = writeDispatcher(type, cn);
+                    definitions.put(cn, createDefinitions(type, cn, anno, methods));
                 }
             }
         }
+        return false;
+    }
+
+    /**
+     * Writes the services file.
+     */
+    private void writeServices() {
+        if (services.isEmpty()) {
+            return;
+        }
 
         // read the services file
         Filer filer = processingEnv.getFiler();
@@ -99,7 +154,7 @@ public class WorkProcessProcessor extends AbstractProcessor {
                 services.add(line);
             }
             r.close();
-        } catch (FileNotFoundException x) {
+        } catch (FileNotFoundException | NoSuchFileException x) {
             // doesn't exist
         } catch (IOException x) {
             processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to load existing service definition files: " + x);
@@ -117,8 +172,553 @@ public class WorkProcessProcessor extends AbstractProcessor {
         } catch (IOException x) {
             processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write service definition " + FILE_NAME + " error: " + x);
         }
+    }
 
-        return false;
+    /**
+     * Writes the work process index. The definitions of the classes which are
+     * not compiled in this run are taken from the existing index.
+     */
+    private void writeIndex() {
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        // read the existing index
+        List<WorkItemDefinition> result = new ArrayList<>();
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject f = filer.getResource(StandardLocation.CLASS_OUTPUT, "", WorkProcessIndex.FILE_NAME);
+            try (InputStream in = f.openInputStream()) {
+                for (WorkItemDefinition definition : WorkProcessIndex.read(in)) {
+                    if (!definitions.containsKey(definition.getServiceClass())) {
+                        result.add(definition);
+                    }
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException x) {
+            // doesn't exist
+        } catch (IOException x) {
+            processingEnv.getMessager().printMessage(Kind.WARNING, "Failed to load existing work process index: " + x);
+        }
+        for (List<WorkItemDefinition> items : definitions.values()) {
+            result.addAll(items);
+        }
+
+        // write the index
+        try {
+            processingEnv.getMessager().printMessage(Kind.NOTE, "Writing " + WorkProcessIndex.FILE_NAME);
+            FileObject f = filer.createResource(StandardLocation.CLASS_OUTPUT, "", WorkProcessIndex.FILE_NAME);
+            try (OutputStream out = f.openOutputStream()) {
+                WorkProcessIndex.write(out, result);
+            }
+        } catch (IOException x) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write work process index " + WorkProcessIndex.FILE_NAME + " error: " + x);
+        }
     }
 
+    /**
+     * Creates the work item definitions of the work process class.
+     *
+     * @param type the work process class.
+     * @param binaryName the binary name of the work process class.
+     * @param workProcess the work process annotation.
+     * @param dispatched the methods of the generated dispatcher.
+     * @return the list of work item definitions.
+     */
+    private List<WorkItemDefinition> createDefinitions(TypeElement type, String binaryName, WorkProcess workProcess, List<ExecutableElement> dispatched) {
+        List<WorkItemDefinition> result = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            WorkItem workItem = method.getAnnotation(WorkItem.class);
+            if (workItem != null && method.getModifiers().contains(Modifier.PUBLIC)) {
+                List<? extends VariableElement> parameters = method.getParameters();
+                String[] parameterTypes = new String[parameters.size()];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    parameterTypes[i] = getTypeName(parameters.get(i).asType());
+                }
+
+                WorkItemDefinition definition = new WorkItemDefinition();
+                definition.setServiceClass(binaryName);
+                definition.setProcess(workProcess.name());
+                definition.setScope(workProcess.scope());
+                definition.setPoolSize(workProcess.poolSize());
+                definition.setWorkItem(workItem.name());
+                definition.setMethod(method.getSimpleName().toString());
+                definition.setParameterTypes(parameterTypes);
+                definition.setAbort(workItem.abort());
+                definition.setInput(!parameters.isEmpty() && isBindable(parameters));
+                definition.setOutput(method.getReturnType().getKind() != TypeKind.VOID);
+                definition.setAsync(workItem.async());
+                definition.setMaxConcurrency(workItem.maxConcurrency());
+                definition.setBatch(workItem.batch());
+                definition.setBatchWindow(workItem.batchWindow());
+                definition.setCache(workItem.cache());
+                definition.setCacheKeys(workItem.cacheKeys());
+                definition.setCacheTtl(workItem.cacheTtl());
+                definition.setCacheSize(workItem.cacheSize());
+                definition.setLimit(workItem.limit());
+                definition.setAdaptiveLimit(workItem.adaptiveLimit());
+                definition.setLimitWait(workItem.limitWait());
+                definition.setRate(workItem.rate());
+                definition.setRateBurst(workItem.rateBurst());
+                definition.setTimeout(workItem.timeout());
+                definition.setRetryAttempts(workItem.retryAttempts());
+                definition.setRetryDelay(workItem.retryDelay());
+                definition.setRetryMaxDelay(workItem.retryMaxDelay());
+                definition.setRetryOn(getRetryOn(workItem));
+                definition.setCircuitWindow(workItem.circuitWindow());
+                definition.setCircuitFailureRate(workItem.circuitFailureRate());
+                definition.setCircuitSlowCall(workItem.circuitSlowCall());
+                definition.setCircuitSlowRate(workItem.circuitSlowRate());
+                definition.setCircuitOpenTime(workItem.circuitOpenTime());
+                definition.setCircuitProbes(workItem.circuitProbes());
+                definition.setFallback(workItem.fallback());
+                definition.setDispatcherIndex(dispatched.indexOf(method));
+                result.add(definition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the class names of the retryable exceptions. The class values of
+     * the annotation are not available in the annotation processor and are
+     * read from the mirrored types.
+     *
+     * @param workItem the work item annotation.
+     * @return the class names of the retryable exceptions.
+     */
+    private String[] getRetryOn(WorkItem workItem) {
+        try {
+            Class<?>[] classes = workItem.retryOn();
+            String[] result = new String[classes.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = classes[i].getName();
+            }
+            return result;
+        } catch (MirroredTypesException ex) {
+            List<? extends TypeMirror> types = ex.getTypeMirrors();
+            String[] result = new String[types.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = getTypeName(types.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Gets the class name of the type for the class loader.
+     *
+     * @param type the type.
+     * @return the class name.
+     */
+    private String getTypeName(TypeMirror type) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind().isPrimitive()) {
+            return erasure.getKind().name().toLowerCase();
+        }
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) processingEnv.getTypeUtils().asElement(erasure)).toString();
+        }
+        return erasure.toString();
+    }
+
+    /**
+     * Writes the dispatcher for the work process class.
+     *
+     * @param type the work process class.
+     * @param binaryName the binary name of the work process class.
+     * @return the methods of the dispatcher.
+     */
+    private List<ExecutableElement> writeDispatcher(TypeElement type, String binaryName) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+            processingEnv.getMessager().printMessage(Kind.WARNING, "No dispatcher generated for the not public class " + binaryName, type);
+            return methods;
+        }
+
+        // collect the work item methods
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getAnnotation(WorkItem.class) != null && isDispatchable(method)) {
+                methods.add(method);
+            }
+        }
+
+        String dispatcherName = binaryName + DISPATCHER_SUFFIX;
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = dispatcherName.substring(dispatcherName.lastIndexOf('.') + 1);
+        String serviceName = type.getQualifiedName().toString();
+
+        try {
+            JavaFileObject f = processingEnv.getFiler().createSourceFile(dispatcherName, type);
+            PrintWriter pw = new PrintWriter(new OutputStreamWriter(f.openOutputStream(), "UTF-8"));
+            if (!packageName.isEmpty()) {
+                pw.println("package " + packageName + ";");
+                pw.println();
+            }
+            pw.println("/**");
+            pw.println(" * The generated dispatcher for {@link " + serviceName + "}.");
+            pw.println(" */");
+            pw.println("public final class " + simpleName + " implements " + WorkProcessDispatcher.class.getName() + " {");
+            pw.println();
+            writeBindings(pw, methods);
+            pw.println("    @Override");
+            pw.println("    public int getIndex(String workItem, boolean abort) {");
+            pw.println("        if (abort) {");
+            writeIndexSwitch(pw, methods, true);
+            pw.println("        }");
+            writeIndexSwitch(pw, methods, false);
+            pw.println("    }");
+            pw.println();
+            pw.println("    @Override");
+            pw.println("    @SuppressWarnings(\"unchecked\")");
+            pw.println("    public java.util.Map<String, Object> invoke(int index, Object service, " + ExecutionData.class.getName() + " data) throws Exception {");
+            pw.println("        " + serviceName + " s = (" + serviceName + ") service;");
+            pw.println("        switch (index) {");
+            for (int i = 0; i < methods.size(); i++) {
+                ExecutableElement method = methods.get(i);
+                String call = "s." + method.getSimpleName() + "(" + getArguments(method, i) + ")";
+                pw.println("            case " + i + ":");
+                if (method.getReturnType().getKind() == TypeKind.VOID) {
+                    pw.println("                " + call + ";");
+                    pw.println("                return null;");
+                } else if (!isMap(method.getReturnType())) {
+                    pw.println("                return writeResult" + i + "(" + call + ");");
+                } else if (isResultMap(method.getReturnType())) {
+                    pw.println("                return " + call + ";");
+                } else {
+                    // the other parameterized map is not convertible without the object cast
+                    pw.println("                return (java.util.Map<String, Object>) (Object) " + call + ";");
+                }
+            }
+            pw.println("            default:");
+            pw.println("                throw new IllegalArgumentException(\"Not supported method index \" + index);");
+            pw.println("        }");
+            pw.println("    }");
+            writeResults(pw, methods);
+            pw.println("}");
+            pw.close();
+        } catch (IOException x) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write the dispatcher " + dispatcherName + " error: " + x, type);
+        }
+        return methods;
+    }
+
+    /**
+     * Writes the parameter binding constants of the dispatched methods.
+     *
+     * @param pw the writer.
+     * @param methods the list of methods.
+     */
+    private void writeBindings(PrintWriter pw, List<ExecutableElement> methods) {
+        boolean empty = true;
+        for (int i = 0; i < methods.size(); i++) {
+            List<? extends VariableElement> parameters = methods.get(i).getParameters();
+            for (int j = 0; j < parameters.size(); j++) {
+                Param param = parameters.get(j).getAnnotation(Param.class);
+                if (param != null && !isExecutionData(parameters.get(j))) {
+                    pw.println("    private static final " + ParameterBinding.class.getName() + " B" + i + "_" + j + " = "
+                            + ParameterBinding.class.getName() + ".create(\"" + escape(param.value()) + "\", "
+                            + getSourceName(parameters.get(j).asType()) + ".class, " + param.required() + ", \"" + escape(param.defaultValue()) + "\");");
+                    empty = false;
+                }
+            }
+        }
+        if (!empty) {
+            pw.println();
+        }
+    }
+
+    /**
+     * Writes the result writer methods of the dispatched methods which return
+     * the result object. The writer fills the presized result map from the
+     * public getters and the public fields of the result object.
+     *
+     * @param pw the writer.
+     * @param methods the list of methods.
+     */
+    private void writeResults(PrintWriter pw, List<ExecutableElement> methods) {
+        for (int i = 0; i < methods.size(); i++) {
+            TypeMirror type = methods.get(i).getReturnType();
+            if (type.getKind() == TypeKind.VOID || isMap(type)) {
+                continue;
+            }
+            Map<String, String> properties = getProperties((TypeElement) processingEnv.getTypeUtils().asElement(type));
+            pw.println();
+            pw.println("    private static java.util.Map<String, Object> writeResult" + i + "(" + getSourceName(type) + " value) {");
+            pw.println("        if (value == null) {");
+            pw.println("            return null;");
+            pw.println("        }");
+            pw.println("        java.util.Map<String, Object> result = new java.util.HashMap<String, Object>(" + ((int) (properties.size() / 0.75f) + 1) + ");");
+            for (Map.Entry<String, String> e : properties.entrySet()) {
+                pw.println("        result.put(\"" + escape(e.getKey()) + "\", value." + e.getValue() + ");");
+            }
+            pw.println("        return result;");
+            pw.println("    }");
+        }
+    }
+
+    /**
+     * Gets the properties of the result class. The public getters are used
+     * before the public fields with the same name.
+     *
+     * @param type the result class.
+     * @return the map of the property name and the access expression.
+     */
+    private Map<String, String> getProperties(TypeElement type) {
+        Map<String, String> result = new LinkedHashMap<>();
+        Elements elements = processingEnv.getElementUtils();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            String name = getPropertyName(method);
+            if (name != null && !result.containsKey(name)) {
+                result.put(name, method.getSimpleName() + "()");
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(elements.getAllMembers(type))) {
+            Set<Modifier> modifiers = field.getModifiers();
+            String name = field.getSimpleName().toString();
+            if (modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC) && !result.containsKey(name)) {
+                result.put(name, name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the property name of the getter method.
+     *
+     * @param method the method.
+     * @return the property name or <code>null</code> if the method is not the
+     * public getter.
+     */
+    private static String getPropertyName(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()) {
+            return null;
+        }
+        if (Object.class.getName().equals(((TypeElement) method.getEnclosingElement()).getQualifiedName().toString())) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        TypeMirror type = method.getReturnType();
+        String tmp = null;
+        if (name.startsWith("get") && name.length() > 3 && type.getKind() != TypeKind.VOID) {
+            tmp = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2 && (type.getKind() == TypeKind.BOOLEAN || Boolean.class.getName().equals(type.toString()))) {
+            tmp = name.substring(2);
+        }
+        if (tmp == null) {
+            return null;
+        }
+        return Character.toLowerCase(tmp.charAt(0)) + tmp.substring(1);
+    }
+
+    /**
+     * Returns <code>true</code> if the type is the result map.
+     *
+     * @param type the type.
+     * @return <code>true</code> if the type is the result map.
+     */
+    private boolean isMap(TypeMirror type) {
+        TypeMirror map = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(Map.class.getName()).asType());
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type), map);
+    }
+
+    /**
+     * Returns <code>true</code> if the type is assignable to the
+     * <code>Map&lt;String, Object&gt;</code> without the cast.
+     *
+     * @param type the type.
+     * @return <code>true</code> if the type is assignable to the result map.
+     */
+    private boolean isResultMap(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        Elements elements = processingEnv.getElementUtils();
+        DeclaredType map = types.getDeclaredType(elements.getTypeElement(Map.class.getName()),
+                elements.getTypeElement(String.class.getName()).asType(), elements.getTypeElement(Object.class.getName()).asType());
+        return types.isAssignable(type, map);
+    }
+
+    /**
+     * Returns <code>true</code> if the result type can be written by the
+     * generated dispatcher. The result type has to be the public class
+     * outside of the <code>java</code> packages.
+     *
+     * @param type the result type.
+     * @return <code>true</code> if the result type is supported.
+     */
+    private boolean isResultType(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        if (processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString().startsWith("java.")) {
+            return false;
+        }
+        while (element != null && element.getKind() != ElementKind.PACKAGE) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the arguments of the dispatched method call.
+     *
+     * @param method the method.
+     * @param index the dispatcher method index.
+     * @return the arguments.
+     */
+    private String getArguments(ExecutableElement method, int index) {
+        StringBuilder sb = new StringBuilder();
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int j = 0; j < parameters.size(); j++) {
+            if (j > 0) {
+                sb.append(", ");
+            }
+            VariableElement parameter = parameters.get(j);
+            if (isExecutionData(parameter)) {
+                sb.append("data");
+            } else {
+                TypeMirror type = parameter.asType();
+                String cast;
+                if (type.getKind().isPrimitive()) {
+                    cast = processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+                } else {
+                    cast = getSourceName(type);
+                }
+                sb.append("(").append(cast).append(") B").append(index).append('_').append(j).append(".get(data)");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the source name of the erased type.
+     *
+     * @param type the type.
+     * @return the source name.
+     */
+    private String getSourceName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * Returns <code>true</code> if the parameter is the execution data.
+     *
+     * @param parameter the parameter.
+     * @return <code>true</code> if the parameter is the execution data.
+     */
+    private boolean isExecutionData(VariableElement parameter) {
+        TypeMirror data = processingEnv.getElementUtils().getTypeElement(ExecutionData.class.getName()).asType();
+        return processingEnv.getTypeUtils().isSameType(parameter.asType(), data);
+    }
+
+    /**
+     * Returns <code>true</code> if all parameters are the execution data or
+     * annotated with {@link Param}.
+     *
+     * @param parameters the parameters.
+     * @return <code>true</code> if all parameters can be bound.
+     */
+    private boolean isBindable(List<? extends VariableElement> parameters) {
+        for (VariableElement parameter : parameters) {
+            if (!isExecutionData(parameter) && parameter.getAnnotation(Param.class) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the work item names of the work process class. The work item
+     * name has to be unique for the execute and for the abort methods of the
+     * class, otherwise the work item cannot be resolved to one method. The
+     * duplicate methods are reported as the compilation errors.
+     *
+     * @param type the work process class.
+     * @return <code>true</code> if the work item names are unique.
+     */
+    private boolean checkWorkItems(TypeElement type) {
+        boolean result = true;
+        Map<String, ExecutableElement> names = new HashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            WorkItem workItem = method.getAnnotation(WorkItem.class);
+            if (workItem != null && method.getModifiers().contains(Modifier.PUBLIC)) {
+                String key = (workItem.abort() ? "abort:" : "execute:") + workItem.name();
+                ExecutableElement other = names.put(key, method);
+                if (other != null) {
+                    processingEnv.getMessager().printMessage(Kind.ERROR, "Duplicate " + (workItem.abort() ? "abort" : "execute")
+                            + " work item " + workItem.name() + " in the work process " + type.getQualifiedName() + ", already defined by the method " + other, method);
+                    result = false;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the work item name switch for the index method.
+     *
+     * @param pw the writer.
+     * @param methods the list of methods.
+     * @param abort the abort flag.
+     */
+    private static void writeIndexSwitch(PrintWriter pw, List<ExecutableElement> methods, boolean abort) {
+        String indent = abort ? "            " : "        ";
+        pw.println(indent + "switch (workItem) {");
+        for (int i = 0; i < methods.size(); i++) {
+            WorkItem workItem = methods.get(i).getAnnotation(WorkItem.class);
+            if (workItem.abort() == abort) {
+                pw.println(indent + "    case \"" + escape(workItem.name()) + "\":");
+                pw.println(indent + "        return " + i + ";");
+            }
+        }
+        pw.println(indent + "    default:");
+        pw.println(indent + "        return -1;");
+        pw.println(indent + "}");
+    }
+
+    /**
+     * Returns <code>true</code> if the method can be called by the generated
+     * dispatcher.
+     *
+     * @param method the method.
+     * @return <code>true</code> if the method can be called by the generated
+     * dispatcher.
+     */
+    private boolean isDispatchable(ExecutableElement method) {
+        if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        TypeMirror result = method.getReturnType();
+        if (result.getKind() != TypeKind.VOID && !isMap(result) && !isResultType(result)) {
+            return false;
+        }
+        return isBindable(method.getParameters());
+    }
+
+    /**
+     * Escapes the string literal. The control characters are written as the
+     * octal escapes, so the {@link Param#NO_DEFAULT} marker stays in the
+     * generated source.
+     *
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\%03o", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.annotation.WorkItem;
+import org.lorislab.jbpm.workitem.api.annotation.WorkProcess;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+
+/**
+ * The benchmark service with the input and output shapes of the example
+ * service methods without the console output.
+ *
+ * @author Andrej_Petras
+ */
+@WorkProcess(name = "benchmark")
+public class BenchmarkService {
+
+    /**
+     * The constant result.
+     */
+    private static final Map<String, Object> RESULT = Collections.<String, Object>singletonMap("result", Boolean.TRUE);
+
+    @WorkItem(name = "step1")
+    public Map<String, Object> test1(ExecutionData data) {
+        return RESULT;
+    }
+
+    @WorkItem(name = "step2")
+    public Map<String, Object> test2(ExecutionData data) {
+        return null;
+    }
+
+    @WorkItem(name = "step3")
+    public void test3(ExecutionData data) {
+        // no result
+    }
+
+    @WorkItem(name = "step4")
+    public void test4() {
+        // no input and result
+    }
+
+    @WorkItem(name = "step5")
+    public Map<String, Object> test5() {
+        return RESULT;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceInvokerFactory;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessExecutionService;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessServiceRegistryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The process execution service benchmark. The benchmark executes every
+ * input and output shape of the service methods with every invoker mode.
+ * The execution log is switched off, so the benchmark measures the dispatch.
+ *
+ * @author Andrej_Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.lorislab.jbpm.workitem.log=none")
+public class ExecuteBenchmark {
+
+    /**
+     * The invoker mode.
+     */
+    @Param({"AUTO", "METHOD_HANDLE", "REFLECTION"})
+    public String mode;
+
+    /**
+     * The work item name. The step1 has input and output, step2 has input and
+     * null output, step3 has only input, step4 has neither input nor output
+     * and step5 has only output.
+     */
+    @Param({"step1", "step2", "step3", "step4", "step5"})
+    public String workItem;
+
+    /**
+     * The deployment id.
+     */
+    private String deploymentId;
+
+    /**
+     * The class loader.
+     */
+    private ClassLoader classLoader;
+
+    /**
+     * The work item parameters.
+     */
+    private Map<String, Object> parameters;
+
+    /**
+     * Loads the deployment with the invoker mode.
+     */
+    @Setup
+    public void setup() {
+        System.setProperty(ProcessServiceInvokerFactory.PROPERTY_MODE, mode);
+        deploymentId = "benchmark-" + mode;
+        classLoader = ExecuteBenchmark.class.getClassLoader();
+        parameters = new HashMap<>();
+        parameters.put("TaskName", workItem);
+        parameters.put("code", "A1");
+        ProcessServiceRegistryManager.getRegistry(deploymentId, classLoader);
+    }
+
+    /**
+     * Removes the deployment.
+     */
+    @TearDown
+    public void tearDown() {
+        ProcessServiceRegistryManager.undeploy(deploymentId);
+        System.clearProperty(ProcessServiceInvokerFactory.PROPERTY_MODE);
+    }
+
+    /**
+     * Executes the work item.
+     *
+     * @return the result.
+     * @throws Exception if the method fails.
+     */
+    @Benchmark
+    public Map<String, Object> execute() throws Exception {
+        return ProcessExecutionService.execute(classLoader, deploymentId, "benchmark", parameters, workItem, 1L);
+    }
+}
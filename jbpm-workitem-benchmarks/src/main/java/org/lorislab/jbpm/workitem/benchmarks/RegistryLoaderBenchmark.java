@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.lorislab.jbpm.workitem.api.processor.WorkProcessProcessor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessServiceRegistryLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The registry loader benchmark. The setup generates and compiles the
+ * services with the annotation processor into a temporary directory. Every
+ * benchmark call loads the services with a new class loader, so the class
+ * loading is part of the measured deployment time.
+ *
+ * @author Andrej_Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistryLoaderBenchmark {
+
+    /**
+     * The number of work item methods per service.
+     */
+    private static final int METHODS = 10;
+
+    /**
+     * The package of the generated services.
+     */
+    private static final String PACKAGE = "org.lorislab.jbpm.workitem.benchmarks.generated";
+
+    /**
+     * The number of generated services.
+     */
+    @Param({"10", "100", "500"})
+    public int services;
+
+    /**
+     * The work process index flag. The services are scanned without the index.
+     */
+    @Param({"true", "false"})
+    public boolean index;
+
+    /**
+     * The parallel loading flag.
+     */
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    /**
+     * The output directory.
+     */
+    private Path directory;
+
+    /**
+     * The class path URLs of the generated services.
+     */
+    private URL[] urls;
+
+    /**
+     * Generates and compiles the services.
+     *
+     * @throws IOException if the generation fails.
+     */
+    @Setup
+    public void setup() throws IOException {
+        System.setProperty(ProcessServiceRegistryLoader.PROPERTY_INDEX, Boolean.toString(index));
+        System.setProperty(ProcessServiceRegistryLoader.PROPERTY_PARALLEL, Boolean.toString(parallel));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The Java compiler is not available. The loader benchmark requires the JDK.");
+        }
+
+        directory = Files.createTempDirectory("jbpm-workitem-benchmark");
+        Path sources = directory.resolve("src");
+        Path classes = directory.resolve("classes");
+        Path pkg = sources.resolve(PACKAGE.replace('.', File.separatorChar));
+        Files.createDirectories(pkg);
+        Files.createDirectories(classes);
+
+        List<String> args = new ArrayList<>(Arrays.asList("-d", classes.toString(), "-classpath", System.getProperty("java.class.path"),
+                "-processor", WorkProcessProcessor.class.getName()));
+        for (int i = 0; i < services; i++) {
+            Path file = pkg.resolve("Service" + i + ".java");
+            Files.write(file, createSource(i).getBytes(StandardCharsets.UTF_8));
+            args.add(file.toString());
+        }
+
+        int result = compiler.run(null, null, null, args.toArray(new String[args.size()]));
+        if (result != 0) {
+            throw new IllegalStateException("Error compile the generated services. Result: " + result);
+        }
+        urls = new URL[]{classes.toUri().toURL()};
+    }
+
+    /**
+     * Deletes the output directory.
+     *
+     * @throws IOException if the delete fails.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.clearProperty(ProcessServiceRegistryLoader.PROPERTY_INDEX);
+        System.clearProperty(ProcessServiceRegistryLoader.PROPERTY_PARALLEL);
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Loads the registry.
+     *
+     * @return the registry.
+     * @throws IOException if the class loader close fails.
+     */
+    @Benchmark
+    public ProcessServiceRegistry load() throws IOException {
+        try (URLClassLoader loader = new URLClassLoader(urls, RegistryLoaderBenchmark.class.getClassLoader())) {
+            return ProcessServiceRegistryLoader.load(loader);
+        }
+    }
+
+    /**
+     * Creates the source of the service.
+     *
+     * @param index the service index.
+     * @return the service source.
+     */
+    private static String createSource(int index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("import java.util.Map;\n");
+        sb.append("import org.lorislab.jbpm.workitem.api.annotation.WorkItem;\n");
+        sb.append("import org.lorislab.jbpm.workitem.api.annotation.WorkProcess;\n");
+        sb.append("import org.lorislab.jbpm.workitem.api.model.ExecutionData;\n\n");
+        sb.append("@WorkProcess(name = \"process").append(index).append("\")\n");
+        sb.append("public class Service").append(index).append(" {\n");
+        for (int i = 0; i < METHODS; i++) {
+            sb.append("    @WorkItem(name = \"step").append(i).append("\")\n");
+            sb.append("    public Map<String, Object> step").append(i).append("(ExecutionData data) {\n");
+            sb.append("        return null;\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
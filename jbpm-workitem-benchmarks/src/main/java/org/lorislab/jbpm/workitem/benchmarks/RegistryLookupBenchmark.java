@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessServiceRegistryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The registry lookup benchmark. The keys are copied, so the lookup does not
+ * profit from the identity of the interned annotation values.
+ *
+ * @author Andrej_Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryLookupBenchmark {
+
+    /**
+     * The deployment id.
+     */
+    private static final String DEPLOYMENT_ID = "benchmark-lookup";
+
+    /**
+     * The work item name.
+     */
+    @Param({"step1", "step5", "unknown"})
+    public String workItem;
+
+    /**
+     * The process id.
+     */
+    private String process;
+
+    /**
+     * The work item name.
+     */
+    private String name;
+
+    /**
+     * The class loader.
+     */
+    private ClassLoader classLoader;
+
+    /**
+     * The registry.
+     */
+    private ProcessServiceRegistry registry;
+
+    /**
+     * Loads the registry.
+     */
+    @Setup
+    public void setup() {
+        classLoader = RegistryLookupBenchmark.class.getClassLoader();
+        registry = ProcessServiceRegistryManager.getRegistry(DEPLOYMENT_ID, classLoader);
+        process = new String("benchmark");
+        name = new String(workItem);
+    }
+
+    /**
+     * Removes the deployment.
+     */
+    @TearDown
+    public void tearDown() {
+        ProcessServiceRegistryManager.undeploy(DEPLOYMENT_ID);
+    }
+
+    /**
+     * The execute method lookup.
+     *
+     * @return the executor.
+     */
+    @Benchmark
+    public ProcessServiceExecutor execute() {
+        return registry.getExecute(process, name);
+    }
+
+    /**
+     * The abort method lookup.
+     *
+     * @return the executor.
+     */
+    @Benchmark
+    public ProcessServiceExecutor abort() {
+        return registry.getAbort(process, name);
+    }
+
+    /**
+     * The deployment and execute method lookup.
+     *
+     * @return the executor.
+     */
+    @Benchmark
+    public ProcessServiceExecutor deployment() {
+        return ProcessServiceRegistryManager.getRegistry(DEPLOYMENT_ID, classLoader).getExecute(process, name);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.kie.api.definition.process.Node;
+import org.kie.api.definition.process.WorkflowProcess;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.process.NodeInstance;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.kie.api.runtime.process.WorkflowProcessInstance;
+import org.lorislab.jbpm.workitem.handler.ProcessServiceWorkItem;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessServiceRegistryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The work item handler benchmark. The KIE session, the process instance and
+ * the node instance are proxy stubs, so the benchmark measures the handler
+ * and the execution service without the process engine. The proxy calls are
+ * part of the measured time.
+ *
+ * @author Andrej_Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.lorislab.jbpm.workitem.log=none")
+public class WorkItemHandlerBenchmark {
+
+    /**
+     * The deployment id.
+     */
+    private static final String DEPLOYMENT_ID = "benchmark-handler";
+
+    /**
+     * The default values of the primitive stub results.
+     */
+    private static final Map<Class<?>, Object> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put(Boolean.TYPE, Boolean.FALSE);
+        DEFAULTS.put(Integer.TYPE, 0);
+        DEFAULTS.put(Long.TYPE, 0L);
+    }
+
+    /**
+     * The work item name.
+     */
+    @Param({"step1", "step4"})
+    public String workItem;
+
+    /**
+     * The work item handler.
+     */
+    private WorkItemHandler handler;
+
+    /**
+     * The work item.
+     */
+    private WorkItemImpl item;
+
+    /**
+     * The work item manager.
+     */
+    private CountingWorkItemManager manager;
+
+    /**
+     * Creates the handler and the stub objects.
+     */
+    @Setup
+    public void setup() {
+        ClassLoader classLoader = WorkItemHandlerBenchmark.class.getClassLoader();
+
+        Node definition = stub(Node.class, "getId", 1L, "getName", workItem);
+        WorkflowProcess process = stub(WorkflowProcess.class, "getId", "benchmark", "getNodes", new Node[]{definition});
+        NodeInstance node = stub(NodeInstance.class, "getNodeName", workItem);
+        WorkflowProcessInstance instance = stub(WorkflowProcessInstance.class, "getNodeInstance", node, "getProcessId", "benchmark", "getProcess", process);
+        KieSession session = stub(KieSession.class, "getProcessInstance", instance);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("TaskName", workItem);
+        parameters.put("code", "A1");
+
+        item = new WorkItemImpl();
+        item.setId(1L);
+        item.setName("ProcessService");
+        item.setProcessInstanceId(1L);
+        item.setNodeInstanceId(1L);
+        item.setNodeId(1L);
+        item.setDeploymentId(DEPLOYMENT_ID);
+        item.setParameters(parameters);
+
+        manager = new CountingWorkItemManager();
+        handler = new ProcessServiceWorkItem(session, classLoader);
+    }
+
+    /**
+     * Removes the deployment and checks the completed work items.
+     */
+    @TearDown
+    public void tearDown() {
+        ProcessServiceRegistryManager.undeploy(DEPLOYMENT_ID);
+        if (manager.aborted > 0) {
+            throw new IllegalStateException("The work items are aborted: " + manager.aborted);
+        }
+    }
+
+    /**
+     * Executes the work item.
+     *
+     * @return the number of completed work items.
+     */
+    @Benchmark
+    public long executeWorkItem() {
+        handler.executeWorkItem(item, manager);
+        return manager.completed;
+    }
+
+    /**
+     * Creates the stub object. The stub returns the configured value for the
+     * method name and the default value for all other methods.
+     *
+     * @param <T> the stub type.
+     * @param clazz the stub interface.
+     * @param values the pairs of the method name and the value.
+     * @return the stub object.
+     */
+    private static <T> T stub(Class<T> clazz, Object... values) {
+        final Map<String, Object> results = new HashMap<>();
+        for (int i = 0; i < values.length; i = i + 2) {
+            results.put((String) values[i], values[i + 1]);
+        }
+        Object proxy = Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[]{clazz}, new InvocationHandler() {
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = results.get(method.getName());
+                if (result == null) {
+                    result = DEFAULTS.get(method.getReturnType());
+                }
+                return result;
+            }
+        });
+        return clazz.cast(proxy);
+    }
+
+    /**
+     * The work item manager which counts the completed and aborted work items.
+     */
+    private static final class CountingWorkItemManager implements WorkItemManager {
+
+        /**
+         * The number of completed work items.
+         */
+        private long completed;
+
+        /**
+         * The number of aborted work items.
+         */
+        private long aborted;
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void completeWorkItem(long id, Map<String, Object> results) {
+            completed++;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void abortWorkItem(long id) {
+            aborted++;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void registerWorkItemHandler(String workItemName, WorkItemHandler handler) {
+            // not supported
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.example.service;
+
+/**
+ * The example result of the step10.
+ *
+ * @author Andrej_Petras
+ */
+public class ExampleResult {
+
+    /**
+     * The order id.
+     */
+    private long orderId;
+
+    /**
+     * The approved flag.
+     */
+    private boolean approved;
+
+    /**
+     * Gets the order id.
+     *
+     * @return the order id.
+     */
+    public long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Sets the order id.
+     *
+     * @param orderId the order id.
+     */
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * Gets the approved flag.
+     *
+     * @return the approved flag.
+     */
+    public boolean isApproved() {
+        return approved;
+    }
+
+    /**
+     * Sets the approved flag.
+     *
+     * @param approved the approved flag.
+     */
+    public void setApproved(boolean approved) {
+        this.approved = approved;
+    }
+}
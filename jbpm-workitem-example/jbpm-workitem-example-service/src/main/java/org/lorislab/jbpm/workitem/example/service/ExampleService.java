@@ -15,7 +15,10 @@
  */
 package org.lorislab.jbpm.workitem.example.service;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.lorislab.jbpm.workitem.api.annotation.Param;
 import org.lorislab.jbpm.workitem.api.annotation.WorkItem;
 import org.lorislab.jbpm.workitem.api.annotation.WorkProcess;
 import org.lorislab.jbpm.workitem.api.model.ExecutionData;
@@ -55,4 +58,66 @@ public class ExampleService {
         System.out.println("Execute step5 step!");
         return null;
     }    
+
+    @WorkItem(name = "step6", async = true)
+    public Map<String, Object> test6(ExecutionData data) {
+        System.out.println("Execute asynchronous step6 step!");
+        return null;
+    }
+
+    @WorkItem(name = "step7", batch = 10, batchWindow = 50)
+    public List<Map<String, Object>> test7(List<ExecutionData> data) {
+        System.out.println("Execute batch step7 step for " + data.size() + " items!");
+        return null;
+    }
+
+    @WorkItem(name = "step8", cache = true, cacheKeys = {"code"}, cacheTtl = 300000)
+    public Map<String, Object> test8(ExecutionData data) {
+        System.out.println("Execute cached step8 step!");
+        Map<String, Object> result = new HashMap<>();
+        result.put("value", data.getParameters().get("code"));
+        return result;
+    }
+
+    @WorkItem(name = "step9")
+    public Map<String, Object> test9(@Param("orderId") long orderId, @Param(value = "note", defaultValue = "none") String note) {
+        System.out.println("Execute step9 step for the order " + orderId + " and note " + note + "!");
+        Map<String, Object> result = new HashMap<>();
+        result.put("orderId", orderId);
+        return result;
+    }
+
+    @WorkItem(name = "step10")
+    public ExampleResult test10(@Param("orderId") long orderId) {
+        System.out.println("Execute step10 step for the order " + orderId + "!");
+        ExampleResult result = new ExampleResult();
+        result.setOrderId(orderId);
+        result.setApproved(orderId > 0);
+        return result;
+    }
+
+    @WorkItem(name = "step11", limit = 4, adaptiveLimit = true, limitWait = 100)
+    public void test11() {
+        System.out.println("Execute limited step11 step!");
+    }
+
+    @WorkItem(name = "step12", rate = 50, timeout = 5000)
+    public void test12() {
+        System.out.println("Execute rate limited step12 step with timeout!");
+    }
+
+    @WorkItem(name = "step13", retryAttempts = 3, retryDelay = 200, retryOn = IllegalStateException.class)
+    public void test13() {
+        System.out.println("Execute step13 step with retry!");
+    }
+
+    @WorkItem(name = "step14", circuitWindow = 20, circuitSlowCall = 2000, fallback = "step14")
+    public void test14() {
+        System.out.println("Execute step14 step with circuit breaker!");
+    }
+
+    @WorkItem(name = "step14", abort = true)
+    public void test14Fallback() {
+        System.out.println("Execute step14 fallback step!");
+    }
 }
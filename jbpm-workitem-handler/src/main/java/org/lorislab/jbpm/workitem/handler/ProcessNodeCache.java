@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.handler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.kie.api.definition.process.Node;
+import org.kie.api.definition.process.NodeContainer;
+import org.kie.api.definition.process.Process;
+
+/**
+ * The process node cache. The cache maps the process instance id to the
+ * process definition id and the process definition id and node id to the
+ * node name, so the work item name is resolved without the process instance
+ * lookup for the known process instances. The process instances are evicted
+ * one by one in the least recently used order.
+ *
+ * @author Andrej_Petras
+ */
+final class ProcessNodeCache {
+
+    /**
+     * The maximum number of the process instances system property.
+     */
+    public static final String PROPERTY_INSTANCES = "org.lorislab.jbpm.workitem.handler.instances";
+
+    /**
+     * The maximum number of the cached process instances.
+     */
+    private static final int INSTANCES = Math.max(0, Integer.getInteger(PROPERTY_INSTANCES, 10000));
+
+    /**
+     * The process definition id by process instance id in the least recently
+     * used order. The access is guarded by the map.
+     */
+    private final Map<Long, String> processes = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+
+        /**
+         * The UID for this class.
+         */
+        private static final long serialVersionUID = -3806104916547327386L;
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > INSTANCES;
+        }
+    };
+
+    /**
+     * The node names by node id for the process definition id.
+     */
+    private final ConcurrentMap<String, Map<Long, String>> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the process definition id.
+     *
+     * @param processInstanceId the process instance id.
+     * @return the process definition id or <code>null</code> if the process
+     * instance is not known.
+     */
+    public String getProcessId(long processInstanceId) {
+        synchronized (processes) {
+            return processes.get(processInstanceId);
+        }
+    }
+
+    /**
+     * Adds the process definition id of the process instance. The least
+     * recently used process instance is removed if the cache is full.
+     *
+     * @param processInstanceId the process instance id.
+     * @param processId the process definition id.
+     */
+    public void putProcessId(long processInstanceId, String processId) {
+        if (INSTANCES > 0) {
+            synchronized (processes) {
+                processes.put(processInstanceId, processId);
+            }
+        }
+    }
+
+    /**
+     * Removes the process instance.
+     *
+     * @param processInstanceId the process instance id.
+     */
+    public void removeProcessId(long processInstanceId) {
+        synchronized (processes) {
+            processes.remove(processInstanceId);
+        }
+    }
+
+    /**
+     * Gets the node name.
+     *
+     * @param processId the process definition id.
+     * @param nodeId the node id.
+     * @return the node name or <code>null</code> if the node is not known or
+     * the node id is not unique in the process definition.
+     */
+    public String getNodeName(String processId, long nodeId) {
+        Map<Long, String> names = nodes.get(processId);
+        if (names == null) {
+            return null;
+        }
+        return names.get(nodeId);
+    }
+
+    /**
+     * Returns <code>true</code> if the process definition is cached.
+     *
+     * @param processId the process definition id.
+     * @return <code>true</code> if the process definition is cached.
+     */
+    public boolean containsProcess(String processId) {
+        return nodes.containsKey(processId);
+    }
+
+    /**
+     * Adds the node names of the process definition. The node id is not
+     * unique in the nested node containers, so the duplicate node id is not
+     * cached and the name is resolved with the node instance.
+     *
+     * @param process the process definition.
+     */
+    public void putProcess(Process process) {
+        Map<Long, String> names = new HashMap<>();
+        if (process instanceof NodeContainer) {
+            Set<Long> duplicates = new HashSet<>();
+            addNodes((NodeContainer) process, names, duplicates);
+            names.keySet().removeAll(duplicates);
+        }
+        nodes.put(process.getId(), Collections.unmodifiableMap(names));
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void clear() {
+        synchronized (processes) {
+            processes.clear();
+        }
+        nodes.clear();
+    }
+
+    /**
+     * Adds the node names of the node container.
+     *
+     * @param container the node container.
+     * @param names the node names.
+     * @param duplicates the duplicate node ids.
+     */
+    private static void addNodes(NodeContainer container, Map<Long, String> names, Set<Long> duplicates) {
+        Node[] items = container.getNodes();
+        if (items != null) {
+            for (Node node : items) {
+                if (names.containsKey(node.getId())) {
+                    duplicates.add(node.getId());
+                }
+                names.put(node.getId(), node.getName());
+                if (node instanceof NodeContainer) {
+                    addNodes((NodeContainer) node, names, duplicates);
+                }
+            }
+        }
+    }
+}
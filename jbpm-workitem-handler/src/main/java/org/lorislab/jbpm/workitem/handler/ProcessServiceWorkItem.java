@@ -15,8 +15,16 @@
  */
 package org.lorislab.jbpm.workitem.handler;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.kie.api.definition.process.Process;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.event.process.ProcessStartedEvent;
 import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.process.NodeInstance;
 import org.kie.api.runtime.process.ProcessInstance;
@@ -24,7 +32,11 @@ import org.kie.api.runtime.process.WorkItem;
 import org.kie.api.runtime.process.WorkItemHandler;
 import org.kie.api.runtime.process.WorkItemManager;
 import org.kie.api.runtime.process.WorkflowProcessInstance;
+import org.lorislab.jbpm.workitem.runtime.service.CircuitOpenException;
+import org.lorislab.jbpm.workitem.runtime.service.CompletionJournal;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessExecutionCallback;
 import org.lorislab.jbpm.workitem.runtime.service.ProcessExecutionService;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +45,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Andrej_Petras
  */
-public class ProcessServiceWorkItem implements WorkItemHandler {
+public class ProcessServiceWorkItem implements WorkItemHandler, Closeable {
 
     /**
      * The logger for this class.
@@ -51,10 +63,26 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
     private ClassLoader classLoader;
 
     /**
-     * The default constructor.
+     * The process node cache.
+     */
+    private final ProcessNodeCache nodes = new ProcessNodeCache();
+
+    /**
+     * The process event listener which fills the process node cache.
+     */
+    private final NodeCacheListener listener = new NodeCacheListener(nodes);
+
+    /**
+     * The completion journal or <code>null</code> if the journal is disabled.
+     */
+    private final CompletionJournal journal;
+
+    /**
+     * The default constructor. The handler without the KIE session executes
+     * only the synchronous work items.
      */
     public ProcessServiceWorkItem() {
-        // empty constructor
+        this.journal = CompletionJournal.getDefault();
     }
 
     /**
@@ -66,6 +94,73 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
     public ProcessServiceWorkItem(KieSession ksession, ClassLoader classLoader) {
         this.ksession = ksession;
         this.classLoader = classLoader;
+        this.journal = CompletionJournal.getDefault();
+        if (ksession != null) {
+            ksession.addEventListener(listener);
+        }
+    }
+
+    /**
+     * Recovers the asynchronous work items of the session which were not
+     * completed in the engine before the restart. The work items which
+     * results were recorded in the completion journal are completed, the
+     * work items which were dispatched without the recorded result are
+     * executed again and stay in the journal until the execution completes
+     * or aborts them. This method should be called after the handler is
+     * registered in the session.
+     *
+     * @return the number of the completed and the executed work items.
+     */
+    public int recover() {
+        int result = 0;
+        if (journal == null || ksession == null) {
+            return result;
+        }
+        WorkItemManager manager = ksession.getWorkItemManager();
+        for (CompletionJournal.Entry entry : journal.getRecovered(ksession.getIdentifier())) {
+            long workItemId = entry.getWorkItemId();
+            try {
+                if (entry.isCompleted()) {
+                    manager.completeWorkItem(workItemId, entry.getResult(classLoader));
+                    result++;
+                    LOGGER.info("Recovered completion of the asynchronous work item {}", workItemId);
+                } else if (entry.isExecutable()) {
+                    execute(entry, manager);
+                    result++;
+                    continue;
+                } else {
+                    LOGGER.warn("Asynchronous work item {} was dispatched before the restart without the execution data", workItemId);
+                }
+                journal.acknowledged(workItemId);
+            } catch (Exception ex) {
+                LOGGER.error("Error recover the asynchronous work item " + workItemId + ": " + ex.getMessage(), ex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the recovered work item again. The work item rejected by the
+     * execution backend stays in the journal for the next recovery, the
+     * failed execution aborts the work item.
+     *
+     * @param entry the recovered journal entry.
+     * @param manager the work item manager of the session.
+     * @throws Exception if the execution data could not be read.
+     */
+    private void execute(CompletionJournal.Entry entry, WorkItemManager manager) throws Exception {
+        long workItemId = entry.getWorkItemId();
+        WorkItemNode node = new WorkItemNode(entry.getProcessId(), entry.getItemName());
+        Map<String, Object> parameters = entry.getParameters(classLoader);
+        WorkItemCallback callback = new WorkItemCallback(workItemId, entry.getProcessInstanceId(), entry.getDeploymentId(), node, parameters, manager, ksession, journal, true);
+        try {
+            ProcessExecutionService.execute(classLoader, entry.getDeploymentId(), node.processId, parameters, node.name, entry.getProcessInstanceId(), callback);
+            LOGGER.info("Recovered execution of the asynchronous work item {}", workItemId);
+        } catch (RejectedExecutionException ex) {
+            LOGGER.warn("Recovered execution of the asynchronous work item {} rejected, the work item stays in the journal: {}", workItemId, ex.getMessage());
+        } catch (Exception ex) {
+            callback.failed(ex);
+        }
     }
 
     /**
@@ -73,16 +168,18 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
      */
     @Override
     public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        WorkItemCallback callback = null;
         try {
             WorkItemImpl impl = (WorkItemImpl) workItem;
-            ProcessInstance instance = getProcessInstance(workItem);
-
-            String name = getWorkItemName(impl, instance);
+            WorkItemNode node = getWorkItemNode(impl);
             String deploymentId = impl.getDeploymentId();
 
-            Map<String, Object> result = ProcessExecutionService.execute(classLoader, deploymentId, instance.getProcessId(), workItem.getParameters(), name, workItem.getProcessInstanceId());
-            manager.completeWorkItem(workItem.getId(), result);
+            callback = new WorkItemCallback(workItem.getId(), workItem.getProcessInstanceId(), deploymentId, node, workItem.getParameters(), manager, ksession, journal, false);
+            ProcessExecutionService.execute(classLoader, deploymentId, node.processId, workItem.getParameters(), node.name, workItem.getProcessInstanceId(), callback);
         } catch (Exception ex) {
+            if (callback != null) {
+                callback.cancel();
+            }
             handleException(ex);
         }
     }
@@ -94,18 +191,74 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
     public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
         try {
             WorkItemImpl impl = (WorkItemImpl) workItem;
-            ProcessInstance instance = getProcessInstance(workItem);
-
-            String name = getWorkItemName(impl, instance);
+            WorkItemNode node = getWorkItemNode(impl);
             String deploymentId = impl.getDeploymentId();
 
-            ProcessExecutionService.abort(classLoader, deploymentId, instance.getProcessId(), workItem.getParameters(), name, workItem.getProcessInstanceId());
+            ProcessExecutionService.abort(classLoader, deploymentId, node.processId, workItem.getParameters(), node.name, workItem.getProcessInstanceId());
             manager.abortWorkItem(workItem.getId());
         } catch (Exception ex) {
             handleException(ex);
         }
     }
 
+    /**
+     * Closes the handler, removes the process event listener from the session
+     * and the services loaded by the project class loader, so the services and the monitoring beans do not keep the class
+     * loader after the deployment is disposed. This method should be called
+     * when the session or the deployment of the handler is disposed. The
+     * services are loaded again by the next execution of the other sessions
+     * with the same class loader.
+     */
+    @Override
+    public void close() {
+        if (ksession != null) {
+            ksession.removeEventListener(listener);
+        }
+        if (classLoader != null) {
+            ProcessExecutionService.undeploy(classLoader);
+        }
+    }
+
+    /**
+     * Gets the process id and the work item name. The process id and the node
+     * name are taken from the node cache for the known process instance and
+     * node id. The cache is filled by the process events of the session
+     * before the work item node is triggered, so the process instance is
+     * loaded only for the handler without the session or the not cached
+     * node.
+     *
+     * @param workItem the work item.
+     * @return the process id and the work item name.
+     */
+    private WorkItemNode getWorkItemNode(WorkItemImpl workItem) {
+        long processInstanceId = workItem.getProcessInstanceId();
+        long nodeId = workItem.getNodeId();
+
+        String processId = nodes.getProcessId(processInstanceId);
+        if (processId != null && nodeId > 0) {
+            String name = nodes.getNodeName(processId, nodeId);
+            if (name != null) {
+                return new WorkItemNode(processId, name);
+            }
+        }
+
+        ProcessInstance instance = getProcessInstance(workItem);
+        processId = instance.getProcessId();
+        nodes.putProcessId(processInstanceId, processId);
+
+        String name = null;
+        if (nodeId > 0) {
+            if (!nodes.containsProcess(processId) && instance.getProcess() != null) {
+                nodes.putProcess(instance.getProcess());
+            }
+            name = nodes.getNodeName(processId, nodeId);
+        }
+        if (name == null) {
+            name = getWorkItemName(workItem, instance);
+        }
+        return new WorkItemNode(processId, name);
+    }
+
     /**
      * Gets the work item name.
      *
@@ -132,14 +285,22 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
     }
 
     /**
-     * Handles the execute exception.
+     * Handles the execute exception. The timeout error is thrown as it is, so
+     * the process can handle the timeout separately from the service errors.
      *
      * @param ex the exception.
      * @throws RuntimeException the standard process exception.
      */
     private void handleException(Exception ex) throws RuntimeException {
         RuntimeException exception;
-        LOGGER.error("Error execute work item: " + ex.getMessage(), ex);
+        // the service error is already logged by the process execution service
+        if (ex instanceof ProcessTimeoutException) {
+            LOGGER.warn("Timeout execute work item: {}", ex.getMessage());
+        } else if (ex instanceof CircuitOpenException) {
+            LOGGER.warn("Circuit open execute work item: {}", ex.getMessage());
+        } else {
+            LOGGER.debug("Error execute work item: {}", ex.getMessage());
+        }
         if (ex instanceof RuntimeException) {
             exception = (RuntimeException) ex;
         } else {
@@ -147,4 +308,284 @@ public class ProcessServiceWorkItem implements WorkItemHandler {
         }
         throw exception;
     }
+
+    /**
+     * The process event listener which adds the process id of the started or
+     * triggered process instance and the process definition to the node
+     * cache. The process instance of the event is already loaded by the
+     * engine, so the work item of the first node of the process instance is
+     * resolved without the process instance lookup.
+     */
+    private static final class NodeCacheListener extends DefaultProcessEventListener {
+
+        /**
+         * The process node cache.
+         */
+        private final ProcessNodeCache nodes;
+
+        /**
+         * The default constructor.
+         *
+         * @param nodes the process node cache.
+         */
+        NodeCacheListener(ProcessNodeCache nodes) {
+            this.nodes = nodes;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void beforeProcessStarted(ProcessStartedEvent event) {
+            add(event.getProcessInstance());
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+            ProcessInstance instance = event.getProcessInstance();
+            if (nodes.getProcessId(instance.getId()) == null) {
+                add(instance);
+            }
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void afterProcessCompleted(ProcessCompletedEvent event) {
+            nodes.removeProcessId(event.getProcessInstance().getId());
+        }
+
+        /**
+         * Adds the process instance and the process definition to the cache.
+         *
+         * @param instance the process instance.
+         */
+        private void add(ProcessInstance instance) {
+            String processId = instance.getProcessId();
+            nodes.putProcessId(instance.getId(), processId);
+            Process process = instance.getProcess();
+            if (process != null && !nodes.containsProcess(processId)) {
+                nodes.putProcess(process);
+            }
+        }
+    }
+
+    /**
+     * The process id and the work item name of the work item.
+     */
+    private static final class WorkItemNode {
+
+        /**
+         * The process id.
+         */
+        private final String processId;
+
+        /**
+         * The work item name.
+         */
+        private final String name;
+
+        /**
+         * The default constructor.
+         *
+         * @param processId the process id.
+         * @param name the work item name.
+         */
+        WorkItemNode(String processId, String name) {
+            this.processId = processId;
+            this.name = name;
+        }
+    }
+
+    /**
+     * The work item callback. The callback completes the work item after the
+     * method finished and aborts the work item if the asynchronous method
+     * failed. The dispatched work item is recorded in the completion journal
+     * and the result is recorded before the work item is completed.
+     */
+    private static final class WorkItemCallback implements ProcessExecutionCallback {
+
+        /**
+         * The work item id.
+         */
+        private final long workItemId;
+
+        /**
+         * The process instance id.
+         */
+        private final long processInstanceId;
+
+        /**
+         * The deployment id.
+         */
+        private final String deploymentId;
+
+        /**
+         * The process id and the work item name.
+         */
+        private final WorkItemNode node;
+
+        /**
+         * The work item parameters.
+         */
+        private final Map<String, Object> parameters;
+
+        /**
+         * The work item manager of the engine for the completion in the
+         * caller thread.
+         */
+        private final WorkItemManager manager;
+
+        /**
+         * The KIE session for the completion out of the caller thread.
+         */
+        private final KieSession ksession;
+
+        /**
+         * The completion journal or <code>null</code>.
+         */
+        private final CompletionJournal journal;
+
+        /**
+         * The session id.
+         */
+        private final long sessionId;
+
+        /**
+         * The journal record flag.
+         */
+        private volatile boolean recorded;
+
+        /**
+         * The dispatched flag.
+         */
+        private volatile boolean dispatched;
+
+        /**
+         * The default constructor.
+         *
+         * @param workItemId the work item id.
+         * @param processInstanceId the process instance id.
+         * @param deploymentId the deployment id.
+         * @param node the process id and the work item name.
+         * @param parameters the work item parameters.
+         * @param manager the work item manager of the engine.
+         * @param ksession the KIE session or <code>null</code>.
+         * @param journal the completion journal or <code>null</code>.
+         * @param recorded <code>true</code> for the work item which is
+         * already recorded in the journal.
+         */
+        WorkItemCallback(long workItemId, long processInstanceId, String deploymentId, WorkItemNode node, Map<String, Object> parameters, WorkItemManager manager, KieSession ksession, CompletionJournal journal, boolean recorded) {
+            this.workItemId = workItemId;
+            this.processInstanceId = processInstanceId;
+            this.deploymentId = deploymentId;
+            this.node = node;
+            this.parameters = parameters;
+            this.recorded = recorded;
+            this.manager = manager;
+            this.ksession = ksession;
+            this.journal = journal;
+            this.sessionId = ksession == null ? 0 : ksession.getIdentifier();
+        }
+
+        /**
+         * {@inheritDoc }
+         * <p>
+         * The work item manager passed to the handler belongs to the running
+         * command of the session and must not be used from the backend
+         * thread, so the dispatched work item is completed through the work
+         * item manager of the session. The handler without the session
+         * rejects the asynchronous execution.
+         */
+        @Override
+        public void dispatched() {
+            if (ksession == null) {
+                throw new IllegalStateException("The asynchronous work item " + workItemId + " requires the work item handler with the KIE session.");
+            }
+            dispatched = true;
+            if (journal != null) {
+                try {
+                    journal.dispatched(sessionId, workItemId, deploymentId, node.processId, node.name, processInstanceId, parameters);
+                    recorded = true;
+                } catch (IOException ex) {
+                    LOGGER.error("Error record the dispatched work item " + workItemId + ": " + ex.getMessage(), ex);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void completed(Map<String, Object> result) {
+            if (recorded) {
+                try {
+                    journal.completed(sessionId, workItemId, result);
+                } catch (IOException ex) {
+                    LOGGER.error("Error record the result of the work item " + workItemId + ": " + ex.getMessage(), ex);
+                }
+            }
+            getManager().completeWorkItem(workItemId, result);
+            acknowledge();
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void failed(Exception exception) {
+            if (exception instanceof ProcessTimeoutException) {
+                LOGGER.warn("Abort timed out asynchronous work item {}: {}", workItemId, exception.getMessage());
+            } else if (exception instanceof CircuitOpenException) {
+                LOGGER.warn("Abort circuit open asynchronous work item {}: {}", workItemId, exception.getMessage());
+            } else {
+                LOGGER.debug("Abort asynchronous work item {}: {}", workItemId, exception.getMessage());
+            }
+            try {
+                getManager().abortWorkItem(workItemId);
+                acknowledge();
+            } catch (Exception ex) {
+                LOGGER.error("Error abort asynchronous work item " + workItemId + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        /**
+         * Gets the work item manager for the completion.
+         *
+         * @return the work item manager of the session for the dispatched
+         * work item, otherwise the work item manager of the engine.
+         */
+        private WorkItemManager getManager() {
+            if (dispatched) {
+                return ksession.getWorkItemManager();
+            }
+            return manager;
+        }
+
+        /**
+         * Cancels the dispatched work item which was rejected before the
+         * execution.
+         */
+        void cancel() {
+            acknowledge();
+        }
+
+        /**
+         * Records the acknowledged work item in the journal.
+         */
+        private void acknowledge() {
+            if (recorded) {
+                recorded = false;
+                try {
+                    journal.acknowledged(workItemId);
+                } catch (IOException ex) {
+                    LOGGER.error("Error record the acknowledged work item " + workItemId + ": " + ex.getMessage(), ex);
+                }
+            }
+        }
+    }
 }
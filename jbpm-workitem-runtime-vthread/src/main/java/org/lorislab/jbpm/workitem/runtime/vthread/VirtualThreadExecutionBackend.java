@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.vthread;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.runtime.service.ProcessExecutionBackend;
+
+/**
+ * The virtual thread execution backend. Each task is executed in a new virtual
+ * thread. The backend is available only in the JVM with the virtual threads,
+ * otherwise the runtime uses the thread pool backend.
+ *
+ * @author Andrej_Petras
+ */
+public final class VirtualThreadExecutionBackend implements ProcessExecutionBackend {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadExecutionBackend.class.getName());
+
+    /**
+     * The backend name.
+     */
+    public static final String NAME = "virtual";
+
+    /**
+     * The virtual thread executor factory method.
+     */
+    private static final MethodHandle FACTORY = findFactory();
+
+    /**
+     * The virtual thread executor.
+     */
+    private volatile ExecutorService executor;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean isAvailable() {
+        return FACTORY != null;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void execute(Runnable task) throws RejectedExecutionException {
+        getExecutor().execute(task);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getQueueCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Gets the virtual thread executor.
+     *
+     * @return the virtual thread executor.
+     */
+    private ExecutorService getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    if (FACTORY == null) {
+                        throw new RejectedExecutionException("Virtual threads are not supported by the JVM");
+                    }
+                    try {
+                        result = (ExecutorService) FACTORY.invokeExact();
+                    } catch (Throwable ex) {
+                        throw new RejectedExecutionException("Error create the virtual thread executor", ex);
+                    }
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the virtual thread executor factory method.
+     *
+     * @return the factory method or <code>null</code> if the JVM does not
+     * support the virtual threads.
+     */
+    private static MethodHandle findFactory() {
+        try {
+            MethodHandle result = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            // the preview versions throw the exception without the preview flag
+            ((ExecutorService) result.invokeExact()).shutdown();
+            return result;
+        } catch (Throwable ex) {
+            LOGGER.log(Level.FINE, "Virtual threads are not supported by the JVM");
+            return null;
+        }
+    }
+}
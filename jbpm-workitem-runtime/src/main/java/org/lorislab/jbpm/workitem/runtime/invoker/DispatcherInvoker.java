@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.processor.WorkProcessDispatcher;
+
+/**
+ * The invoker for the generated work process dispatcher. The errors of the
+ * method are wrapped to the exception.
+ *
+ * @author Andrej_Petras
+ */
+public final class DispatcherInvoker implements ProcessServiceInvoker {
+
+    /**
+     * The generated dispatcher.
+     */
+    private final WorkProcessDispatcher dispatcher;
+
+    /**
+     * The dispatcher method index.
+     */
+    private final int index;
+
+    /**
+     * The default constructor.
+     *
+     * @param dispatcher the generated dispatcher.
+     * @param index the dispatcher method index.
+     */
+    public DispatcherInvoker(WorkProcessDispatcher dispatcher, int index) {
+        this.dispatcher = dispatcher;
+        this.index = index;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<String, Object> invoke(Object service, ExecutionData data) throws Exception {
+        try {
+            return dispatcher.invoke(index, service, data);
+        } catch (Error ex) {
+            throw new Exception("Error in execution the work item handler.", ex);
+        }
+    }
+
+}
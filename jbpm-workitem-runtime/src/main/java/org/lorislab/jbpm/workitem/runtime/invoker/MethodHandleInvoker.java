@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.model.ParameterBinding;
+
+/**
+ * The method handle invoker. The method is adapted once to the
+ * <code>(Object, ExecutionData)Object</code> shape, so the call is an exact
+ * invocation without the argument array and the access checks of the
+ * reflection call. The errors of the method are wrapped to the exception.
+ *
+ * @author Andrej_Petras
+ */
+public final class MethodHandleInvoker implements ProcessServiceInvoker {
+
+    /**
+     * The invoker method type.
+     */
+    private static final MethodType TYPE = MethodType.methodType(Object.class, Object.class, ExecutionData.class);
+
+    /**
+     * The parameter binding get method.
+     */
+    private static final MethodHandle GET;
+
+    static {
+        try {
+            GET = MethodHandles.publicLookup().findVirtual(ParameterBinding.class, "get", MethodType.methodType(Object.class, ExecutionData.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The adapted method handle.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * The default constructor. The parameter bindings are adapted to the
+     * method handle filters of the execution data argument and the result
+     * writer to the filter of the return value.
+     *
+     * @param method the service method.
+     * @param bindings the method parameter bindings.
+     * @param writer the result writer or <code>null</code> if the method
+     * returns the result map.
+     * @throws IllegalAccessException if the method is not accessible.
+     */
+    public MethodHandleInvoker(Method method, ParameterBinding[] bindings, ResultWriter writer) throws IllegalAccessException {
+        MethodHandle tmp = MethodHandles.publicLookup().unreflect(method);
+        if (writer != null) {
+            tmp = writer.adapt(tmp);
+        }
+        if (bindings.length == 0) {
+            tmp = MethodHandles.dropArguments(tmp, 1, ExecutionData.class);
+        } else if (bindings.length > 1 || !bindings[0].isData()) {
+            Class<?>[] types = method.getParameterTypes();
+            MethodHandle[] filters = new MethodHandle[bindings.length];
+            int[] reorder = new int[bindings.length + 1];
+            for (int i = 0; i < bindings.length; i++) {
+                if (!bindings[i].isData()) {
+                    filters[i] = GET.bindTo(bindings[i]).asType(MethodType.methodType(types[i], ExecutionData.class));
+                }
+                reorder[i + 1] = 1;
+            }
+            tmp = tmp.asType(tmp.type().changeParameterType(0, Object.class));
+            tmp = MethodHandles.filterArguments(tmp, 1, filters);
+            MethodType type = MethodType.methodType(tmp.type().returnType(), Object.class, ExecutionData.class);
+            tmp = MethodHandles.permuteArguments(tmp, type, reorder);
+        }
+        this.handle = tmp.asType(TYPE);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> invoke(Object service, ExecutionData data) throws Exception {
+        try {
+            return (Map<String, Object>) (Object) handle.invokeExact(service, data);
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new Exception("Error in execution the work item handler.", ex);
+        }
+    }
+
+}
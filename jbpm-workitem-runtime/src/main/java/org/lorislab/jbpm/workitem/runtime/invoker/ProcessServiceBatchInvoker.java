@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+
+/**
+ * The batch invoker. The batch method has one <code>List</code> parameter with
+ * the execution data and returns the list of results in the same order or
+ * nothing.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceBatchInvoker {
+
+    /**
+     * The invoker method type.
+     */
+    private static final MethodType TYPE = MethodType.methodType(Object.class, Object.class, List.class);
+
+    /**
+     * The adapted method handle.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * The default constructor.
+     *
+     * @param method the batch method.
+     * @throws IllegalAccessException if the method is not accessible.
+     */
+    public ProcessServiceBatchInvoker(Method method) throws IllegalAccessException {
+        this.handle = MethodHandles.publicLookup().unreflect(method).asType(TYPE);
+    }
+
+    /**
+     * Returns <code>true</code> if the method is a batch method.
+     *
+     * @param method the method.
+     * @return <code>true</code> if the method is a batch method.
+     */
+    public static boolean isBatchMethod(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        return parameters.length == 1 && parameters[0].isAssignableFrom(List.class);
+    }
+
+    /**
+     * Invokes the batch method.
+     *
+     * @param service the service instance.
+     * @param data the list of execution data.
+     * @return the list of results or <code>null</code>.
+     * @throws Exception if the method fails.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> invoke(Object service, List<ExecutionData> data) throws Exception {
+        try {
+            return (List<Map<String, Object>>) (Object) handle.invokeExact(service, (List) data);
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new Exception("Error in execution the work item handler.", ex);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+
+/**
+ * The process service invoker. The invoker is created once for the work item
+ * method when the executor is registered.
+ *
+ * @author Andrej_Petras
+ */
+public interface ProcessServiceInvoker {
+
+    /**
+     * Invokes the work item method.
+     *
+     * @param service the service instance.
+     * @param data the execution data or <code>null</code> if the method has no
+     * input parameter.
+     * @return the result of the method or <code>null</code>.
+     * @throws Exception if the method fails.
+     */
+    public Map<String, Object> invoke(Object service, ExecutionData data) throws Exception;
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.api.model.ParameterBinding;
+import org.lorislab.jbpm.workitem.api.processor.WorkProcessDispatcher;
+
+/**
+ * The process service invoker factory.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceInvokerFactory {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceInvokerFactory.class.getName());
+
+    /**
+     * The invoker mode system property.
+     */
+    public static final String PROPERTY_MODE = "org.lorislab.jbpm.workitem.invoker";
+
+    /**
+     * The invoker mode.
+     */
+    public enum Mode {
+
+        /**
+         * The generated dispatcher, method handle as fallback.
+         */
+        AUTO,
+
+        /**
+         * The method handle.
+         */
+        METHOD_HANDLE,
+
+        /**
+         * The reflection.
+         */
+        REFLECTION;
+    }
+
+    /**
+     * The default constructor.
+     */
+    private ProcessServiceInvokerFactory() {
+        // empty constructor
+    }
+
+    /**
+     * Gets the invoker mode from the system property.
+     *
+     * @return the invoker mode.
+     */
+    public static Mode getMode() {
+        String value = System.getProperty(PROPERTY_MODE);
+        if (value != null) {
+            try {
+                return Mode.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.WARNING, "Not supported invoker mode {0}", value);
+            }
+        }
+        return Mode.AUTO;
+    }
+
+    /**
+     * Creates the invoker for the work item method.
+     *
+     * @param mode the invoker mode.
+     * @param method the service method.
+     * @param bindings the method parameter bindings.
+     * @param writer the result writer or <code>null</code> if the method
+     * returns the result map.
+     * @param dispatcher the generated dispatcher or <code>null</code>.
+     * @param index the dispatcher method index.
+     * @return the invoker.
+     */
+    public static ProcessServiceInvoker create(Mode mode, Method method, ParameterBinding[] bindings, ResultWriter writer, WorkProcessDispatcher dispatcher, int index) {
+        if (mode == Mode.REFLECTION) {
+            return new ReflectionInvoker(method, bindings, writer);
+        }
+        if (mode == Mode.AUTO && dispatcher != null && index >= 0) {
+            return new DispatcherInvoker(dispatcher, index);
+        }
+        try {
+            return new MethodHandleInvoker(method, bindings, writer);
+        } catch (IllegalAccessException ex) {
+            LOGGER.log(Level.WARNING, "Method handle is not supported for the method {0}, use reflection", method);
+            return new ReflectionInvoker(method, bindings, writer);
+        }
+    }
+}
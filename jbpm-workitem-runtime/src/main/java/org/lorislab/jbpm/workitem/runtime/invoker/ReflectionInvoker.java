@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.model.ParameterBinding;
+
+/**
+ * The reflection invoker.
+ *
+ * @author Andrej_Petras
+ */
+public final class ReflectionInvoker implements ProcessServiceInvoker {
+
+    /**
+     * The empty arguments.
+     */
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The service method.
+     */
+    private final Method method;
+
+    /**
+     * The method parameter bindings.
+     */
+    private final ParameterBinding[] bindings;
+
+    /**
+     * The result writer.
+     */
+    private final ResultWriter writer;
+
+    /**
+     * The default constructor.
+     *
+     * @param method the service method.
+     * @param bindings the method parameter bindings.
+     * @param writer the result writer or <code>null</code> if the method
+     * returns the result map.
+     */
+    public ReflectionInvoker(Method method, ParameterBinding[] bindings, ResultWriter writer) {
+        this.method = method;
+        this.bindings = bindings;
+        this.writer = writer;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> invoke(Object service, ExecutionData data) throws Exception {
+        try {
+            Object[] args = EMPTY;
+            if (bindings.length > 0) {
+                args = new Object[bindings.length];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = bindings[i].get(data);
+                }
+            }
+            Object result = method.invoke(service, args);
+            if (writer != null) {
+                return writer.write(result);
+            }
+            return (Map<String, Object>) result;
+        } catch (InvocationTargetException e) {
+            Throwable ex = e.getTargetException();
+            if (ex instanceof Exception) {
+                throw (Exception) ex;
+            }
+            throw new Exception("Error in execution the work item handler.", ex);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result writer. The writer fills the work item result map from the
+ * properties of the result object returned by the work item method. The
+ * properties are the public getters and the public fields of the result
+ * class, which are resolved once when the work item method is registered.
+ *
+ * @author Andrej_Petras
+ */
+public final class ResultWriter {
+
+    /**
+     * The getter method type.
+     */
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The write method handle.
+     */
+    private static final MethodHandle WRITE;
+
+    static {
+        try {
+            WRITE = MethodHandles.publicLookup().findVirtual(ResultWriter.class, "write", MethodType.methodType(Map.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The property names.
+     */
+    private final String[] names;
+
+    /**
+     * The property getters.
+     */
+    private final MethodHandle[] getters;
+
+    /**
+     * The initial capacity of the result map.
+     */
+    private final int capacity;
+
+    /**
+     * The default constructor.
+     *
+     * @param names the property names.
+     * @param getters the property getters.
+     */
+    private ResultWriter(String[] names, MethodHandle[] getters) {
+        this.names = names;
+        this.getters = getters;
+        this.capacity = getCapacity(names.length);
+    }
+
+    /**
+     * Gets the initial capacity of the hash map for the number of entries
+     * without resize.
+     *
+     * @param size the number of entries.
+     * @return the initial capacity.
+     */
+    public static int getCapacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * Returns <code>true</code> if the result type is the result map or void.
+     *
+     * @param type the result type.
+     * @return <code>true</code> if the result does not need the writer.
+     */
+    public static boolean isMap(Class<?> type) {
+        return type == null || Void.TYPE.equals(type) || Map.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns <code>true</code> if the result type is supported by the writer.
+     * The result type has to be the public class outside of the
+     * <code>java</code> packages.
+     *
+     * @param type the result type.
+     * @return <code>true</code> if the result type is supported.
+     */
+    public static boolean isSupported(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && Modifier.isPublic(type.getModifiers())
+                && !type.getName().startsWith("java.");
+    }
+
+    /**
+     * Creates the result writer for the result type.
+     *
+     * @param type the result type.
+     * @return the result writer.
+     * @throws IllegalAccessException if the property is not accessible.
+     */
+    public static ResultWriter create(Class<?> type) throws IllegalAccessException {
+        Map<String, MethodHandle> properties = new LinkedHashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Method method : type.getMethods()) {
+            String name = getPropertyName(method);
+            if (name != null && !properties.containsKey(name)) {
+                properties.put(name, lookup.unreflect(method).asType(GETTER));
+            }
+        }
+        for (Field field : type.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !properties.containsKey(field.getName())) {
+                properties.put(field.getName(), lookup.unreflectGetter(field).asType(GETTER));
+            }
+        }
+        List<String> names = new ArrayList<>(properties.keySet());
+        return new ResultWriter(names.toArray(new String[names.size()]), properties.values().toArray(new MethodHandle[properties.size()]));
+    }
+
+    /**
+     * Gets the property name of the getter method.
+     *
+     * @param method the method.
+     * @return the property name or <code>null</code> if the method is not the
+     * getter.
+     */
+    private static String getPropertyName(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length != 0 || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+        String tmp = null;
+        if (name.startsWith("get") && name.length() > 3 && !Void.TYPE.equals(type)) {
+            tmp = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2 && (Boolean.TYPE.equals(type) || Boolean.class.equals(type))) {
+            tmp = name.substring(2);
+        }
+        if (tmp == null) {
+            return null;
+        }
+        return Character.toLowerCase(tmp.charAt(0)) + tmp.substring(1);
+    }
+
+    /**
+     * Adapts the method handle of the work item method to return the result
+     * map.
+     *
+     * @param handle the method handle.
+     * @return the adapted method handle.
+     */
+    public MethodHandle adapt(MethodHandle handle) {
+        MethodHandle tmp = handle.asType(handle.type().changeReturnType(Object.class));
+        return MethodHandles.filterReturnValue(tmp, WRITE.bindTo(this));
+    }
+
+    /**
+     * Writes the result object to the result map.
+     *
+     * @param value the result object.
+     * @return the result map or <code>null</code> if the result object is
+     * <code>null</code>.
+     * @throws Exception if the property getter fails.
+     */
+    public Map<String, Object> write(Object value) throws Exception {
+        if (value == null) {
+            return null;
+        }
+        Map<String, Object> result = new HashMap<>(capacity);
+        try {
+            for (int i = 0; i < names.length; i++) {
+                result.put(names[i], getters[i].invokeExact(value));
+            }
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new Exception("Error in writing the work item result.", ex);
+        }
+        return result;
+    }
+}
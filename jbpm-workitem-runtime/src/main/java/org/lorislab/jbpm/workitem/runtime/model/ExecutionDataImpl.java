@@ -17,9 +17,12 @@ package org.lorislab.jbpm.workitem.runtime.model;
 
 import java.util.Map;
 import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.model.ParameterKey;
 
 /**
- * The execution data implementation.
+ * The execution data implementation. The execution data is the view of the
+ * work item parameters, the parameter map is not copied and the typed
+ * accessors convert only the requested values.
  *
  * @author Andrej_Petras
  */
@@ -85,6 +88,99 @@ public class ExecutionDataImpl implements ExecutionData {
         return parameters;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object get(String name) {
+        if (parameters == null) {
+            return null;
+        }
+        return parameters.get(name);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T> T get(ParameterKey<T> key) {
+        return key.convert(get(key.getName()));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public <T> T getAs(String name, Class<T> type) {
+        return ParameterKey.convert(name, get(name), type);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getString(String name) {
+        Object value = get(name);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        return value.toString();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Long getLong(String name) {
+        return ParameterKey.convert(name, get(name), Long.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getLong(String name, long defaultValue) {
+        Object value = get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return ParameterKey.convert(name, value, Long.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Integer getInteger(String name) {
+        return ParameterKey.convert(name, get(name), Integer.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getInt(String name, int defaultValue) {
+        Object value = get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return ParameterKey.convert(name, value, Integer.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Boolean getBoolean(String name) {
+        return ParameterKey.convert(name, get(name), Boolean.class);
+    }
+
     /**
      * Gets the work item name.
      *
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceBatchInvoker;
+
+/**
+ * The process service batch. The batch collects the pending items and flushes
+ * them when the batch size is reached or the batch window elapsed after the
+ * first item.
+ *
+ * @author Andrej_Petras
+ * @param <T> the item type.
+ */
+public final class ProcessServiceBatch<T> {
+
+    /**
+     * The batch size.
+     */
+    private final int size;
+
+    /**
+     * The batch window in milliseconds.
+     */
+    private final long window;
+
+    /**
+     * The batch invoker.
+     */
+    private final ProcessServiceBatchInvoker invoker;
+
+    /**
+     * The pending items.
+     */
+    private List<T> items;
+
+    /**
+     * The batch generation.
+     */
+    private long generation;
+
+    /**
+     * The default constructor.
+     *
+     * @param size the batch size.
+     * @param window the batch window in milliseconds.
+     * @param invoker the batch invoker.
+     */
+    public ProcessServiceBatch(int size, long window, ProcessServiceBatchInvoker invoker) {
+        this.size = size;
+        this.window = window;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Gets the batch invoker.
+     *
+     * @return the batch invoker.
+     */
+    public ProcessServiceBatchInvoker getInvoker() {
+        return invoker;
+    }
+
+    /**
+     * Gets the batch size.
+     *
+     * @return the batch size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the batch window in milliseconds.
+     *
+     * @return the batch window in milliseconds.
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Adds the item to the batch. The full batch is flushed in the caller
+     * thread, the time window is flushed by the scheduler.
+     *
+     * @param item the item.
+     * @param scheduler the window scheduler.
+     * @param flusher the batch flusher.
+     */
+    public void add(T item, ScheduledExecutorService scheduler, final Flusher<T> flusher) {
+        List<T> full = null;
+        long started = -1;
+        synchronized (this) {
+            if (items == null) {
+                items = new ArrayList<>(size);
+                started = generation;
+            }
+            items.add(item);
+            if (items.size() >= size) {
+                full = take();
+            }
+        }
+
+        if (full != null) {
+            flusher.flush(full);
+        } else if (started >= 0) {
+            final long tmp = started;
+            scheduler.schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    List<T> result = take(tmp);
+                    if (result != null) {
+                        flusher.flush(result);
+                    }
+                }
+            }, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Takes the pending items of the batch generation.
+     *
+     * @param gen the batch generation.
+     * @return the pending items or <code>null</code> if the batch was already
+     * flushed.
+     */
+    private synchronized List<T> take(long gen) {
+        if (gen != generation || items == null) {
+            return null;
+        }
+        return take();
+    }
+
+    /**
+     * Takes the pending items. The caller must hold the lock.
+     *
+     * @return the pending items.
+     */
+    private List<T> take() {
+        List<T> result = items;
+        items = null;
+        generation++;
+        return result;
+    }
+
+    /**
+     * The batch flusher.
+     *
+     * @param <T> the item type.
+     */
+    public interface Flusher<T> {
+
+        /**
+         * Flushes the batch items.
+         *
+         * @param items the batch items.
+         */
+        public void flush(List<T> items);
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The process service result cache. The cache is split to the segments and
+ * each entry expires after the time to live. The segment uses the W-TinyLFU
+ * policy: the new entry goes to the small least recently used window, the
+ * entry evicted from the window replaces the least recently used entry of the
+ * main region only if it was requested more often. The request frequencies
+ * are estimated by the count-min sketch of the segment, so a scan of the
+ * one-time keys does not flush the frequently used results.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceCache {
+
+    /**
+     * The number of segments.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * The empty result marker.
+     */
+    private static final Map<String, Object> EMPTY = Collections.emptyMap();
+
+    /**
+     * The parameter names of the cache key.
+     */
+    private final String[] keys;
+
+    /**
+     * The time to live in nanoseconds.
+     */
+    private final long ttl;
+
+    /**
+     * The cache segments.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The number of hits.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of misses.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The number of evictions.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The default constructor.
+     *
+     * @param keys the parameter names of the cache key or empty array for all
+     * parameters.
+     * @param ttl the time to live in milliseconds.
+     * @param size the maximum number of entries.
+     */
+    public ProcessServiceCache(String[] keys, long ttl, int size) {
+        this.keys = keys;
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        int count = Math.min(SEGMENTS, Math.max(1, size));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(Math.max(1, size / count));
+        }
+    }
+
+    /**
+     * Creates the cache key from the work item parameters.
+     *
+     * @param parameters the work item parameters.
+     * @return the cache key.
+     */
+    public Object createKey(Map<String, Object> parameters) {
+        if (keys.length == 0) {
+            return parameters == null ? EMPTY : new HashMap<>(parameters);
+        }
+        Object[] tmp = new Object[keys.length];
+        if (parameters != null) {
+            for (int i = 0; i < keys.length; i++) {
+                tmp[i] = parameters.get(keys[i]);
+            }
+        }
+        return Arrays.asList(tmp);
+    }
+
+    /**
+     * Gets the result from the cache.
+     *
+     * @param key the cache key.
+     * @return the copy of the cached result, the empty map for the cached
+     * <code>null</code> result or <code>null</code> if the result is not in
+     * the cache.
+     */
+    public Map<String, Object> get(Object key) {
+        Map<String, Object> result = segment(key).get(key, System.nanoTime());
+        if (result == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        if (result == EMPTY) {
+            return EMPTY;
+        }
+        return new HashMap<>(result);
+    }
+
+    /**
+     * Puts the result to the cache.
+     *
+     * @param key the cache key.
+     * @param result the result.
+     */
+    public void put(Object key, Map<String, Object> result) {
+        Map<String, Object> value = EMPTY;
+        if (result != null) {
+            value = Collections.unmodifiableMap(new HashMap<>(result));
+        }
+        long now = System.nanoTime();
+        segment(key).put(key, value, now, now + ttl);
+    }
+
+    /**
+     * Returns <code>true</code> if the result is the cached <code>null</code>
+     * result.
+     *
+     * @param result the result from the cache.
+     * @return <code>true</code> for the cached <code>null</code> result.
+     */
+    public static boolean isNullResult(Map<String, Object> result) {
+        return result == EMPTY;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidate() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries.
+     */
+    public int getSize() {
+        int result = 0;
+        for (Segment segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of hits.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of misses.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of evictions.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the segment for the key.
+     *
+     * @param key the key.
+     * @return the corresponding segment.
+     */
+    private Segment segment(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    /**
+     * The cache entry.
+     */
+    private static final class Entry {
+
+        /**
+         * The result.
+         */
+        private final Map<String, Object> value;
+
+        /**
+         * The expiration time in nanoseconds.
+         */
+        private final long expire;
+
+        /**
+         * The default constructor.
+         *
+         * @param value the result.
+         * @param expire the expiration time in nanoseconds.
+         */
+        Entry(Map<String, Object> value, long expire) {
+            this.value = value;
+            this.expire = expire;
+        }
+    }
+
+    /**
+     * The W-TinyLFU cache segment.
+     */
+    private final class Segment {
+
+        /**
+         * The admission window.
+         */
+        private final LinkedHashMap<Object, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * The main region.
+         */
+        private final LinkedHashMap<Object, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * The maximum number of entries in the admission window.
+         */
+        private final int windowCapacity;
+
+        /**
+         * The maximum number of entries in the main region.
+         */
+        private final int mainCapacity;
+
+        /**
+         * The request frequencies.
+         */
+        private final FrequencySketch sketch;
+
+        /**
+         * The default constructor.
+         *
+         * @param capacity the maximum number of entries.
+         */
+        Segment(int capacity) {
+            this.windowCapacity = capacity > 1 ? Math.max(1, capacity / 100) : 0;
+            this.mainCapacity = capacity - windowCapacity;
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        /**
+         * Gets the not expired result.
+         *
+         * @param key the key.
+         * @param now the current time in nanoseconds.
+         * @return the result or <code>null</code>.
+         */
+        synchronized Map<String, Object> get(Object key, long now) {
+            sketch.increment(key);
+            Map<Object, Entry> region = window;
+            Entry entry = window.get(key);
+            if (entry == null) {
+                region = main;
+                entry = main.get(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expire - now < 0) {
+                region.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.value;
+        }
+
+        /**
+         * Puts the result.
+         *
+         * @param key the key.
+         * @param value the result.
+         * @param now the current time in nanoseconds.
+         * @param expire the expiration time in nanoseconds.
+         */
+        synchronized void put(Object key, Map<String, Object> value, long now, long expire) {
+            Entry entry = new Entry(value, expire);
+            if (main.containsKey(key)) {
+                main.put(key, entry);
+                return;
+            }
+            window.put(key, entry);
+            if (window.size() > windowCapacity) {
+                Iterator<Map.Entry<Object, Entry>> iter = window.entrySet().iterator();
+                Map.Entry<Object, Entry> candidate = iter.next();
+                iter.remove();
+                admit(candidate.getKey(), candidate.getValue(), now);
+            }
+        }
+
+        /**
+         * Moves the entry evicted from the admission window to the main
+         * region. The full main region keeps its least recently used entry if
+         * the entry is not expired and was requested at least as often as the
+         * candidate.
+         *
+         * @param key the key.
+         * @param entry the entry.
+         * @param now the current time in nanoseconds.
+         */
+        private void admit(Object key, Entry entry, long now) {
+            if (main.size() < mainCapacity) {
+                main.put(key, entry);
+                return;
+            }
+            evictions.incrementAndGet();
+            Iterator<Map.Entry<Object, Entry>> iter = main.entrySet().iterator();
+            Map.Entry<Object, Entry> victim = iter.next();
+            if (victim.getValue().expire - now < 0 || sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                iter.remove();
+                main.put(key, entry);
+            }
+        }
+
+        /**
+         * Removes all entries.
+         */
+        synchronized void clear() {
+            window.clear();
+            main.clear();
+        }
+
+        /**
+         * Gets the number of entries.
+         *
+         * @return the number of entries.
+         */
+        synchronized int size() {
+            return window.size() + main.size();
+        }
+    }
+
+    /**
+     * The count-min sketch of the request frequencies. Each key has four
+     * 4-bit counters packed in the long values of the table, the frequency is
+     * the minimum of the counters. All counters are halved after the sample
+     * size of increments, so the old frequencies age out. The sketch is not
+     * thread safe and is guarded by the segment.
+     */
+    private static final class FrequencySketch {
+
+        /**
+         * The seeds of the counter indexes.
+         */
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        /**
+         * The mask of the halved counters.
+         */
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        /**
+         * The counter table.
+         */
+        private final long[] table;
+
+        /**
+         * The mask of the table index.
+         */
+        private final int mask;
+
+        /**
+         * The number of increments before the counters are halved.
+         */
+        private final int sampleSize;
+
+        /**
+         * The number of increments since the last reset.
+         */
+        private int additions;
+
+        /**
+         * The default constructor.
+         *
+         * @param capacity the maximum number of entries.
+         */
+        FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.table = new long[length];
+            this.mask = length - 1;
+            this.sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        /**
+         * Gets the estimated frequency of the key.
+         *
+         * @param key the key.
+         * @return the estimated frequency from <code>0</code> to
+         * <code>15</code>.
+         */
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int result = 15;
+            for (int i = 0; i < 4; i++) {
+                int offset = (start + i) << 2;
+                int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+                result = Math.min(result, count);
+            }
+            return result;
+        }
+
+        /**
+         * Increments the counters of the key.
+         *
+         * @param key the key.
+         */
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                long counter = 0xfL << offset;
+                if ((table[index] & counter) != counter) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * Halves all counters.
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions = additions >>> 1;
+        }
+
+        /**
+         * Gets the table index of the counter.
+         *
+         * @param hash the spread hash of the key.
+         * @param i the counter number.
+         * @return the table index.
+         */
+        private int indexOf(int hash, int i) {
+            long tmp = (hash + SEEDS[i]) * SEEDS[i];
+            tmp += tmp >>> 32;
+            return ((int) tmp) & mask;
+        }
+
+        /**
+         * Spreads the bits of the hash code.
+         *
+         * @param value the hash code.
+         * @return the spread hash.
+         */
+        private static int spread(int value) {
+            int tmp = ((value >>> 16) ^ value) * 0x45d9f3b;
+            tmp = ((tmp >>> 16) ^ tmp) * 0x45d9f3b;
+            return (tmp >>> 16) ^ tmp;
+        }
+    }
+}
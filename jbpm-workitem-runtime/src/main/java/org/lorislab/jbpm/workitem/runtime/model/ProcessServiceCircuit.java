@@ -0,0 +1,446 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The process service circuit breaker. The outcomes of the executions are
+ * recorded in the count based sliding window. The circuit opens when the
+ * window is full and the failure rate or the slow call rate reaches the
+ * threshold. The open circuit rejects the executions for the open time and
+ * then lets the probe executions through in the half open state. The probes
+ * close or open the circuit again. The state is updated without locks.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceCircuit {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceCircuit.class.getName());
+
+    /**
+     * The closed state.
+     */
+    public static final int CLOSED = 0;
+
+    /**
+     * The open state.
+     */
+    public static final int OPEN = 1;
+
+    /**
+     * The half open state.
+     */
+    public static final int HALF_OPEN = 2;
+
+    /**
+     * The state names.
+     */
+    private static final String[] STATES = {"CLOSED", "OPEN", "HALF_OPEN"};
+
+    /**
+     * The recorded outcome flag.
+     */
+    private static final int RECORDED = 1;
+
+    /**
+     * The failed outcome flag.
+     */
+    private static final int FAILED = 2;
+
+    /**
+     * The slow outcome flag.
+     */
+    private static final int SLOW = 4;
+
+    /**
+     * The executor id.
+     */
+    private final String id;
+
+    /**
+     * The failure rate threshold in percent.
+     */
+    private final int failureRate;
+
+    /**
+     * The slow call threshold in nanoseconds or <code>0</code>.
+     */
+    private final long slowCall;
+
+    /**
+     * The slow call rate threshold in percent.
+     */
+    private final int slowRate;
+
+    /**
+     * The open time in nanoseconds.
+     */
+    private final long openTime;
+
+    /**
+     * The number of the probe executions in the half open state.
+     */
+    private final int probes;
+
+    /**
+     * The fallback work item name.
+     */
+    private final String fallbackName;
+
+    /**
+     * The outcomes of the sliding window.
+     */
+    private final AtomicIntegerArray outcomes;
+
+    /**
+     * The next position in the sliding window.
+     */
+    private final AtomicLong position = new AtomicLong();
+
+    /**
+     * The number of the recorded outcomes in the sliding window.
+     */
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /**
+     * The number of the failed outcomes in the sliding window.
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * The number of the slow outcomes in the sliding window.
+     */
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    /**
+     * The circuit state.
+     */
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+    /**
+     * The remaining probe executions in the half open state.
+     */
+    private final AtomicInteger permits = new AtomicInteger();
+
+    /**
+     * The number of the finished probe executions.
+     */
+    private final AtomicInteger probeCalls = new AtomicInteger();
+
+    /**
+     * The number of the failed or slow probe executions.
+     */
+    private final AtomicInteger probeFailures = new AtomicInteger();
+
+    /**
+     * The number of rejected executions.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The number of the circuit openings.
+     */
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * The time of the last circuit opening in nanoseconds.
+     */
+    private volatile long openedAt;
+
+    /**
+     * The fallback executor.
+     */
+    private volatile ProcessServiceExecutor fallback;
+
+    /**
+     * The default constructor.
+     *
+     * @param id the executor id.
+     * @param window the size of the sliding window.
+     * @param failureRate the failure rate threshold in percent.
+     * @param slowCall the slow call threshold in milliseconds or
+     * <code>0</code> for no slow call detection.
+     * @param slowRate the slow call rate threshold in percent.
+     * @param openTime the open time in milliseconds.
+     * @param probes the number of the probe executions in the half open
+     * state.
+     * @param fallbackName the fallback work item name or the empty string.
+     */
+    public ProcessServiceCircuit(String id, int window, int failureRate, long slowCall, int slowRate, long openTime, int probes, String fallbackName) {
+        this.id = id;
+        this.outcomes = new AtomicIntegerArray(window);
+        this.failureRate = failureRate;
+        this.slowCall = TimeUnit.MILLISECONDS.toNanos(slowCall);
+        this.slowRate = slowRate;
+        this.openTime = TimeUnit.MILLISECONDS.toNanos(openTime);
+        this.probes = Math.max(1, probes);
+        this.fallbackName = fallbackName;
+    }
+
+    /**
+     * Acquires the permission for the execution.
+     *
+     * @return the state in which the execution is permitted or
+     * {@link #OPEN} if the execution is rejected.
+     */
+    public int acquire() {
+        int tmp = state.get();
+        if (tmp == CLOSED) {
+            return CLOSED;
+        }
+        if (tmp == OPEN) {
+            if (System.nanoTime() - openedAt < openTime) {
+                rejected.increment();
+                return OPEN;
+            }
+            if (state.compareAndSet(OPEN, HALF_OPEN)) {
+                probeCalls.set(0);
+                probeFailures.set(0);
+                permits.set(probes);
+                LOGGER.log(Level.INFO, "Circuit of the work item {0} is half open", id);
+            }
+        }
+        for (;;) {
+            int p = permits.get();
+            if (p <= 0) {
+                rejected.increment();
+                return OPEN;
+            }
+            if (permits.compareAndSet(p, p - 1)) {
+                return HALF_OPEN;
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of the permitted execution.
+     *
+     * @param permit the state returned by {@link #acquire()}.
+     * @param latency the execution time in nanoseconds.
+     * @param success the success flag.
+     */
+    public void record(int permit, long latency, boolean success) {
+        boolean slow = slowCall > 0 && latency >= slowCall;
+        if (permit == CLOSED) {
+            if (state.get() != CLOSED) {
+                return;
+            }
+            int outcome = RECORDED | (success ? 0 : FAILED) | (slow ? SLOW : 0);
+            int old = outcomes.getAndSet((int) (position.getAndIncrement() % outcomes.length()), outcome);
+            update(old, outcome);
+            int n = calls.get();
+            if (n >= outcomes.length() && isOverThreshold(n, failures.get(), slowCalls.get())) {
+                open(CLOSED);
+            }
+        } else if (permit == HALF_OPEN) {
+            if (!success || slow) {
+                probeFailures.incrementAndGet();
+            }
+            if (probeCalls.incrementAndGet() == probes && state.get() == HALF_OPEN) {
+                int failed = probeFailures.get();
+                if (failed * 100L >= (long) failureRate * probes) {
+                    open(HALF_OPEN);
+                } else if (state.compareAndSet(HALF_OPEN, CLOSED)) {
+                    clear();
+                    LOGGER.log(Level.INFO, "Circuit of the work item {0} is closed", id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the permitted execution which was not executed. The probe
+     * permission of the half open state is returned.
+     *
+     * @param permit the state returned by {@link #acquire()}.
+     */
+    public void cancel(int permit) {
+        if (permit == HALF_OPEN && state.get() == HALF_OPEN) {
+            permits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Resets the circuit to the closed state with the empty sliding window.
+     */
+    public void reset() {
+        state.set(CLOSED);
+        permits.set(0);
+        clear();
+    }
+
+    /**
+     * Gets the state.
+     *
+     * @return the state.
+     */
+    public int getState() {
+        return state.get();
+    }
+
+    /**
+     * Gets the state name.
+     *
+     * @return the state name.
+     */
+    public String getStateName() {
+        return STATES[state.get()];
+    }
+
+    /**
+     * Gets the failure rate of the sliding window.
+     *
+     * @return the failure rate in percent.
+     */
+    public double getFailureRate() {
+        int n = calls.get();
+        return n == 0 ? 0 : failures.get() * 100.0 / n;
+    }
+
+    /**
+     * Gets the slow call rate of the sliding window.
+     *
+     * @return the slow call rate in percent.
+     */
+    public double getSlowCallRate() {
+        int n = calls.get();
+        return n == 0 ? 0 : slowCalls.get() * 100.0 / n;
+    }
+
+    /**
+     * Gets the remaining open time.
+     *
+     * @return the remaining open time in milliseconds.
+     */
+    public long getRetryAfter() {
+        long remaining = openTime - (System.nanoTime() - openedAt);
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) + 1 : 0;
+    }
+
+    /**
+     * Gets the number of rejected executions.
+     *
+     * @return the number of rejected executions.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of the circuit openings.
+     *
+     * @return the number of the circuit openings.
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    /**
+     * Gets the fallback work item name.
+     *
+     * @return the fallback work item name or the empty string.
+     */
+    public String getFallbackName() {
+        return fallbackName;
+    }
+
+    /**
+     * Gets the fallback executor.
+     *
+     * @return the fallback executor or <code>null</code>.
+     */
+    public ProcessServiceExecutor getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Sets the fallback executor.
+     *
+     * @param fallback the fallback executor.
+     */
+    public void setFallback(ProcessServiceExecutor fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Opens the circuit.
+     *
+     * @param expected the expected current state.
+     */
+    private void open(int expected) {
+        openedAt = System.nanoTime();
+        if (state.compareAndSet(expected, OPEN)) {
+            opened.increment();
+            LOGGER.log(Level.WARNING, "Circuit of the work item {0} is open [failure rate: {1}%, slow call rate: {2}%]", new Object[]{id, getFailureRate(), getSlowCallRate()});
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the failure rate or the slow call rate
+     * reaches the threshold.
+     *
+     * @param n the number of the recorded outcomes.
+     * @param failed the number of the failed outcomes.
+     * @param slow the number of the slow outcomes.
+     * @return <code>true</code> if the circuit should open.
+     */
+    private boolean isOverThreshold(int n, int failed, int slow) {
+        if (failed * 100L >= (long) failureRate * n) {
+            return true;
+        }
+        return slowCall > 0 && slow * 100L >= (long) slowRate * n;
+    }
+
+    /**
+     * Clears the sliding window.
+     */
+    private void clear() {
+        for (int i = 0; i < outcomes.length(); i++) {
+            update(outcomes.getAndSet(i, 0), 0);
+        }
+    }
+
+    /**
+     * Updates the window counters for the replaced outcome.
+     *
+     * @param old the old outcome.
+     * @param outcome the new outcome.
+     */
+    private void update(int old, int outcome) {
+        int diff = (outcome & RECORDED) - (old & RECORDED);
+        if (diff != 0) {
+            calls.addAndGet(diff);
+        }
+        diff = ((outcome & FAILED) - (old & FAILED)) / FAILED;
+        if (diff != 0) {
+            failures.addAndGet(diff);
+        }
+        diff = ((outcome & SLOW) - (old & SLOW)) / SLOW;
+        if (diff != 0) {
+            slowCalls.addAndGet(diff);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The concurrency gate of the asynchronous work item. The gate limits the
+ * number of asynchronous executions which are handed to the execution backend.
+ * The executions over the limit wait in the pending queue of the work item and
+ * do not occupy the threads of the backend. The pending queue is bounded by
+ * the queue capacity of the backend.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceConcurrency {
+
+    /**
+     * The maximum number of running executions.
+     */
+    private final int max;
+
+    /**
+     * The number of running executions.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * The number of pending executions.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The pending executions.
+     */
+    private final ConcurrentLinkedDeque<Runnable> pending = new ConcurrentLinkedDeque<>();
+
+    /**
+     * The default constructor.
+     *
+     * @param max the maximum number of running executions.
+     */
+    public ProcessServiceConcurrency(int max) {
+        this.max = max;
+    }
+
+    /**
+     * Acquires the slot for the execution without waiting.
+     *
+     * @return <code>true</code> if the slot was acquired.
+     */
+    public boolean tryAcquire() {
+        int value = running.get();
+        while (value < max) {
+            if (running.compareAndSet(value, value + 1)) {
+                return true;
+            }
+            value = running.get();
+        }
+        return false;
+    }
+
+    /**
+     * Releases the slot of the execution.
+     */
+    public void release() {
+        running.decrementAndGet();
+    }
+
+    /**
+     * Adds the execution at the end of the pending queue if the queue is not
+     * full.
+     *
+     * @param task the execution.
+     * @param capacity the capacity of the pending queue.
+     * @return <code>true</code> if the execution was added.
+     */
+    public boolean offer(Runnable task, int capacity) {
+        int value = size.get();
+        while (value < capacity) {
+            if (size.compareAndSet(value, value + 1)) {
+                pending.offerLast(task);
+                return true;
+            }
+            value = size.get();
+        }
+        return false;
+    }
+
+    /**
+     * Removes the execution from the head of the pending queue.
+     *
+     * @return the execution or <code>null</code> if the queue is empty.
+     */
+    public Runnable poll() {
+        Runnable result = pending.pollFirst();
+        if (result != null) {
+            size.decrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Returns <code>true</code> if no execution is pending.
+     *
+     * @return <code>true</code> if no execution is pending.
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Gets the maximum number of running executions.
+     *
+     * @return the maximum number of running executions.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the number of running executions.
+     *
+     * @return the number of running executions.
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * Gets the number of pending executions.
+     *
+     * @return the number of pending executions.
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+}
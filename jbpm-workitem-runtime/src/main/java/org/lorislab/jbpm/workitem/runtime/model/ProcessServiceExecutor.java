@@ -16,6 +16,9 @@
 package org.lorislab.jbpm.workitem.runtime.model;
 
 import java.lang.reflect.Method;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceInvoker;
+import org.lorislab.jbpm.workitem.runtime.provider.ProcessServiceProvider;
 
 /**
  * The process service executor.
@@ -40,9 +43,9 @@ public final class ProcessServiceExecutor {
     private final String workItem;
 
     /**
-     * The service.
+     * The service provider.
      */
-    private final Object service;
+    private final ProcessServiceProvider provider;
 
     /**
      * The service method.
@@ -64,35 +67,248 @@ public final class ProcessServiceExecutor {
      */
     private final boolean output;
 
+    /**
+     * The asynchronous flag.
+     */
+    private final boolean async;
+
+    /**
+     * The concurrency gate of the asynchronous executions.
+     */
+    private final ProcessServiceConcurrency concurrency;
+
+    /**
+     * The method invoker.
+     */
+    private final ProcessServiceInvoker invoker;
+
+    /**
+     * The executor metrics.
+     */
+    private final ProcessServiceMetrics metrics = new ProcessServiceMetrics();
+
+    /**
+     * The service logger.
+     */
+    private final Logger logger;
+
+    /**
+     * The batch.
+     */
+    private ProcessServiceBatch<?> batch;
+
+    /**
+     * The result cache.
+     */
+    private ProcessServiceCache cache;
+
+    /**
+     * The concurrency limit.
+     */
+    private ProcessServiceLimit limit;
+
+    /**
+     * The rate limit.
+     */
+    private ProcessServiceRate rate;
+
+    /**
+     * The timeout in milliseconds.
+     */
+    private long timeout;
+
+    /**
+     * The retry policy.
+     */
+    private ProcessServiceRetry retry;
+
+    /**
+     * The circuit breaker.
+     */
+    private ProcessServiceCircuit circuit;
+
     /**
      * The default constructor.
      *
      * @param id the ID.
      * @param process the process.
      * @param workItem the work item.
-     * @param service the service instance.
+     * @param provider the service provider.
      * @param method the service method.
      * @param abort the abort flag.
      * @param input the input parameter flag.
-     * @param output
+     * @param output the output flag.
+     * @param async the asynchronous flag.
+     * @param maxConcurrency the maximum number of concurrent asynchronous
+     * executions or <code>0</code> for no limit.
+     * @param invoker the method invoker.
      */
-    public ProcessServiceExecutor(String id, String process, String workItem, Object service, Method method, boolean abort, boolean input, boolean output) {
+    public ProcessServiceExecutor(String id, String process, String workItem, ProcessServiceProvider provider, Method method, boolean abort, boolean input, boolean output, boolean async, int maxConcurrency, ProcessServiceInvoker invoker) {
         this.id = id;
         this.process = process;
         this.workItem = workItem;
-        this.service = service;
+        this.provider = provider;
         this.method = method;
         this.input = input;
         this.output = output;
         this.abort = abort;
+        this.async = async;
+        this.concurrency = maxConcurrency > 0 ? new ProcessServiceConcurrency(maxConcurrency) : null;
+        this.invoker = invoker;
+        this.logger = Logger.getLogger(method.getDeclaringClass().getName());
+    }
+
+    /**
+     * Gets the service logger.
+     *
+     * @return the service logger.
+     */
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Gets the executor metrics.
+     *
+     * @return the executor metrics.
+     */
+    public ProcessServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the result cache.
+     *
+     * @return the result cache or <code>null</code> if the result is not
+     * cached.
+     */
+    public ProcessServiceCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sets the result cache.
+     *
+     * @param cache the result cache.
+     */
+    public void setCache(ProcessServiceCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the concurrency limit.
+     *
+     * @return the concurrency limit or <code>null</code> if the executions
+     * are not limited.
+     */
+    public ProcessServiceLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the concurrency limit.
+     *
+     * @param limit the concurrency limit.
+     */
+    public void setLimit(ProcessServiceLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the rate limit.
+     *
+     * @return the rate limit or <code>null</code> if the executions are not
+     * rate limited.
+     */
+    public ProcessServiceRate getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the rate limit.
+     *
+     * @param rate the rate limit.
+     */
+    public void setRate(ProcessServiceRate rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Gets the timeout in milliseconds.
+     *
+     * @return the timeout in milliseconds or <code>0</code> for no timeout.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the timeout in milliseconds.
+     *
+     * @param timeout the timeout in milliseconds.
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets the batch.
+     *
+     * @return the batch or <code>null</code> if the executor is not a batch
+     * executor.
+     */
+    public ProcessServiceBatch<?> getBatch() {
+        return batch;
+    }
+
+    /**
+     * Sets the batch.
+     *
+     * @param batch the batch.
+     */
+    public void setBatch(ProcessServiceBatch<?> batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Gets the concurrency gate of the asynchronous executions.
+     *
+     * @return the concurrency gate or <code>null</code> if the executor is
+     * not limited.
+     */
+    public ProcessServiceConcurrency getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the asynchronous flag.
+     *
+     * @return the asynchronous flag.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets the method invoker.
+     *
+     * @return the method invoker.
+     */
+    public ProcessServiceInvoker getInvoker() {
+        return invoker;
     }
 
     public Method getMethod() {
         return method;
     }
 
-    public Object getService() {
-        return service;
+    /**
+     * Gets the service provider.
+     *
+     * @return the service provider.
+     */
+    public ProcessServiceProvider getProvider() {
+        return provider;
     }
 
     public boolean isInput() {
@@ -140,4 +356,42 @@ public final class ProcessServiceExecutor {
     }
 
 
+
+    /**
+     * Gets the retry policy.
+     *
+     * @return the retry policy or <code>null</code> if the failed executions
+     * are not retried.
+     */
+    public ProcessServiceRetry getRetry() {
+        return retry;
+    }
+
+    /**
+     * Sets the retry policy.
+     *
+     * @param retry the retry policy.
+     */
+    public void setRetry(ProcessServiceRetry retry) {
+        this.retry = retry;
+    }
+
+    /**
+     * Gets the circuit breaker.
+     *
+     * @return the circuit breaker or <code>null</code> if the executor has no
+     * circuit breaker.
+     */
+    public ProcessServiceCircuit getCircuit() {
+        return circuit;
+    }
+
+    /**
+     * Sets the circuit breaker.
+     *
+     * @param circuit the circuit breaker.
+     */
+    public void setCircuit(ProcessServiceCircuit circuit) {
+        this.circuit = circuit;
+    }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The process service concurrency limit (bulkhead). The limit is static or
+ * adaptive. The adaptive limit is increased by one while the executions are
+ * close to the limit and decreased by the backoff ratio when the execution
+ * fails or the latency exceeds the tolerance of the average latency
+ * (additive increase, multiplicative decrease). The average latency follows
+ * slowly the observed latency, so the limit recovers when the higher latency
+ * becomes the normal latency of the work item. The execution which exceeds
+ * the limit is rejected or waits for the free slot.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceLimit {
+
+    /**
+     * The backoff ratio of the adaptive limit.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * The latency tolerance of the adaptive limit.
+     */
+    private static final long TOLERANCE = 2;
+
+    /**
+     * The smoothing factor of the average latency.
+     */
+    private static final int SMOOTHING = 100;
+
+    /**
+     * The current limit.
+     */
+    private final AtomicInteger limit;
+
+    /**
+     * The maximal limit.
+     */
+    private volatile int maxLimit;
+
+    /**
+     * The adaptive flag.
+     */
+    private final boolean adaptive;
+
+    /**
+     * The wait time for the free slot in nanoseconds.
+     */
+    private final long wait;
+
+    /**
+     * The number of running executions.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The number of rejected executions.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The average latency in nanoseconds.
+     */
+    private final AtomicLong average = new AtomicLong();
+
+    /**
+     * The wait lock.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The free slot condition.
+     */
+    private final Condition available = lock.newCondition();
+
+    /**
+     * The number of waiting executions.
+     */
+    private volatile int waiting;
+
+    /**
+     * The default constructor.
+     *
+     * @param limit the static limit or the maximal adaptive limit.
+     * @param adaptive the adaptive flag.
+     * @param wait the wait time for the free slot in milliseconds or
+     * <code>0</code> to reject the execution immediately.
+     */
+    public ProcessServiceLimit(int limit, boolean adaptive, long wait) {
+        this.limit = new AtomicInteger(limit);
+        this.maxLimit = limit;
+        this.adaptive = adaptive;
+        this.wait = TimeUnit.MILLISECONDS.toNanos(wait);
+    }
+
+    /**
+     * Acquires the execution slot.
+     *
+     * @return <code>true</code> if the slot was acquired or <code>false</code>
+     * if the execution was rejected.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public boolean acquire() throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        if (wait > 0) {
+            lock.lockInterruptibly();
+            try {
+                waiting++;
+                try {
+                    long remaining = wait;
+                    while (remaining > 0) {
+                        if (tryAcquire()) {
+                            return true;
+                        }
+                        remaining = available.awaitNanos(remaining);
+                    }
+                } finally {
+                    waiting--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Tries to acquire the execution slot without waiting.
+     *
+     * @return <code>true</code> if the slot was acquired.
+     */
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases the execution slot and updates the adaptive limit.
+     *
+     * @param latency the execution latency in nanoseconds.
+     * @param success the success flag.
+     */
+    public void release(long latency, boolean success) {
+        int running = inFlight.getAndDecrement();
+        if (adaptive) {
+            update(latency, success, running);
+        }
+        if (waiting > 0) {
+            lock.lock();
+            try {
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Updates the adaptive limit.
+     *
+     * @param latency the execution latency in nanoseconds.
+     * @param success the success flag.
+     * @param running the number of running executions including this one.
+     */
+    private void update(long latency, boolean success, int running) {
+        long old;
+        long value;
+        do {
+            old = average.get();
+            value = old == 0 ? latency : old + (latency - old) / SMOOTHING;
+        } while (!average.compareAndSet(old, value));
+
+        int current = limit.get();
+        int next = current;
+        if (!success || (old > 0 && latency > old * TOLERANCE)) {
+            next = Math.max(1, (int) (current * BACKOFF));
+        } else if (running * 2 >= current) {
+            next = Math.min(maxLimit, current + 1);
+        }
+        if (next != current) {
+            limit.compareAndSet(current, next);
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the current limit.
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * Gets the maximal limit.
+     *
+     * @return the maximal limit.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Sets the maximal limit. The static limit is set to the value and the
+     * adaptive limit is bounded by the value.
+     *
+     * @param value the maximal limit.
+     */
+    public void setMaxLimit(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("The limit must be greater than 0.");
+        }
+        maxLimit = value;
+        int current;
+        do {
+            current = limit.get();
+        } while (!limit.compareAndSet(current, adaptive ? Math.min(current, value) : value));
+        if (waiting > 0) {
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the limit is adaptive.
+     *
+     * @return <code>true</code> if the limit is adaptive.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Gets the number of running executions.
+     *
+     * @return the number of running executions.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of rejected executions.
+     *
+     * @return the number of rejected executions.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The process service executor metrics. The counters are striped and the
+ * latency histogram has the power of two microsecond buckets, so the metrics
+ * are cheap for the concurrent executions.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceMetrics {
+
+    /**
+     * The number of histogram buckets. The bucket <code>i</code> contains the
+     * latency less than <code>2^i</code> microseconds.
+     */
+    public static final int BUCKETS = 40;
+
+    /**
+     * The number of successful executions.
+     */
+    private final LongAdder success = new LongAdder();
+
+    /**
+     * The number of failed executions.
+     */
+    private final LongAdder failure = new LongAdder();
+
+    /**
+     * The number of timed out executions.
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * The number of running executions.
+     */
+    private final LongAdder inFlight = new LongAdder();
+
+    /**
+     * The total execution time in nanoseconds.
+     */
+    private final LongAdder totalTime = new LongAdder();
+
+    /**
+     * The latency histogram.
+     */
+    private final LongAdder[] histogram;
+
+    /**
+     * The default constructor.
+     */
+    public ProcessServiceMetrics() {
+        histogram = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Starts the execution.
+     *
+     * @return the start time in nanoseconds.
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Finishes the successful execution.
+     *
+     * @param startTime the start time in nanoseconds.
+     * @return the duration in nanoseconds.
+     */
+    public long succeeded(long startTime) {
+        success.increment();
+        return finish(startTime);
+    }
+
+    /**
+     * Finishes the failed execution.
+     *
+     * @param startTime the start time in nanoseconds.
+     * @return the duration in nanoseconds.
+     */
+    public long failed(long startTime) {
+        failure.increment();
+        return finish(startTime);
+    }
+
+    /**
+     * Counts the timed out execution. The timed out execution is finished as
+     * the failed execution.
+     */
+    public void timedOut() {
+        timeouts.increment();
+    }
+
+    /**
+     * Gets the number of successful executions.
+     *
+     * @return the number of successful executions.
+     */
+    public long getSuccessCount() {
+        return success.sum();
+    }
+
+    /**
+     * Gets the number of failed executions.
+     *
+     * @return the number of failed executions.
+     */
+    public long getFailureCount() {
+        return failure.sum();
+    }
+
+    /**
+     * Gets the number of timed out executions.
+     *
+     * @return the number of timed out executions.
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Gets the number of running executions.
+     *
+     * @return the number of running executions.
+     */
+    public long getInFlightCount() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Gets the mean execution time in milliseconds.
+     *
+     * @return the mean execution time in milliseconds.
+     */
+    public double getMeanTime() {
+        long count = success.sum() + failure.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (totalTime.sum() / (double) count) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the latency histogram.
+     *
+     * @return the counts of the histogram buckets.
+     */
+    public long[] getHistogram() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = histogram[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the latency percentile in milliseconds. The value is the upper bound
+     * of the histogram bucket.
+     *
+     * @param percentile the percentile between <code>0</code> and
+     * <code>1</code>.
+     * @return the latency percentile in milliseconds.
+     */
+    public double getPercentile(double percentile) {
+        long[] tmp = getHistogram();
+        long count = 0;
+        for (long c : tmp) {
+            count += c;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long limit = (long) Math.ceil(count * percentile);
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += tmp[i];
+            if (sum >= limit) {
+                return (1L << i) / 1000d;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / 1000d;
+    }
+
+    /**
+     * Finishes the execution.
+     *
+     * @param startTime the start time in nanoseconds.
+     * @return the duration in nanoseconds.
+     */
+    private long finish(long startTime) {
+        long duration = System.nanoTime() - startTime;
+        inFlight.decrement();
+        totalTime.add(duration);
+        long micros = duration / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        if (bucket >= BUCKETS) {
+            bucket = BUCKETS - 1;
+        }
+        histogram[bucket].increment();
+        return duration;
+    }
+}
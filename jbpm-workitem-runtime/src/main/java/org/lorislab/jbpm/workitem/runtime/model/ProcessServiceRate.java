@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The process service rate limit. The rate limit is the token bucket
+ * implemented as the generic cell rate algorithm, the state of the bucket is
+ * one theoretical arrival time which is updated without locks.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceRate {
+
+    /**
+     * The theoretical arrival time in nanoseconds.
+     */
+    private final AtomicLong arrival;
+
+    /**
+     * The number of rejected executions.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The number of delayed executions.
+     */
+    private final LongAdder delayed = new LongAdder();
+
+    /**
+     * The rate settings.
+     */
+    private volatile Settings settings;
+
+    /**
+     * The default constructor.
+     *
+     * @param rate the number of executions per second.
+     * @param burst the bucket size or <code>0</code> for the size of the one
+     * second rate.
+     */
+    public ProcessServiceRate(double rate, int burst) {
+        this.settings = new Settings(rate, burst);
+        this.arrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Tries to take the token from the bucket.
+     *
+     * @return <code>0</code> if the token was taken or the wait time in
+     * nanoseconds for the next token.
+     */
+    public long tryAcquire() {
+        Settings s = settings;
+        long now = System.nanoTime();
+        for (;;) {
+            long old = arrival.get();
+            long start = old - now > 0 ? old : now;
+            long wait = start - now - s.tolerance;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (arrival.compareAndSet(old, start + s.interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reserves the token in the bucket.
+     *
+     * @return the delay in nanoseconds after which the execution conforms to
+     * the rate.
+     */
+    public long reserve() {
+        Settings s = settings;
+        long now = System.nanoTime();
+        for (;;) {
+            long old = arrival.get();
+            long start = old - now > 0 ? old : now;
+            if (arrival.compareAndSet(old, start + s.interval)) {
+                long wait = start - now - s.tolerance;
+                if (wait > 0) {
+                    delayed.increment();
+                    return wait;
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of executions per second.
+     *
+     * @return the number of executions per second.
+     */
+    public double getRate() {
+        return settings.rate;
+    }
+
+    /**
+     * Gets the bucket size.
+     *
+     * @return the bucket size.
+     */
+    public int getBurst() {
+        return settings.burst;
+    }
+
+    /**
+     * Sets the rate.
+     *
+     * @param rate the number of executions per second.
+     * @param burst the bucket size or <code>0</code> for the size of the one
+     * second rate.
+     */
+    public void setRate(double rate, int burst) {
+        settings = new Settings(rate, burst);
+    }
+
+    /**
+     * Gets the number of rejected executions.
+     *
+     * @return the number of rejected executions.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of delayed executions.
+     *
+     * @return the number of delayed executions.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * The rate settings.
+     */
+    private static final class Settings {
+
+        /**
+         * The number of executions per second.
+         */
+        private final double rate;
+
+        /**
+         * The bucket size.
+         */
+        private final int burst;
+
+        /**
+         * The emission interval in nanoseconds.
+         */
+        private final long interval;
+
+        /**
+         * The burst tolerance in nanoseconds.
+         */
+        private final long tolerance;
+
+        /**
+         * The default constructor.
+         *
+         * @param rate the number of executions per second.
+         * @param burst the bucket size or <code>0</code> for the size of the
+         * one second rate.
+         */
+        Settings(double rate, int burst) {
+            if (rate <= 0) {
+                throw new IllegalArgumentException("The rate must be greater than 0.");
+            }
+            this.rate = rate;
+            this.burst = burst > 0 ? burst : Math.max(1, (int) Math.ceil(rate));
+            this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+            this.tolerance = interval * (this.burst - 1);
+        }
+    }
+}
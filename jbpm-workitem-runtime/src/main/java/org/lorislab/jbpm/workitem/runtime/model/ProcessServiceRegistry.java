@@ -15,25 +15,53 @@
  */
 package org.lorislab.jbpm.workitem.runtime.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * The process service registry.
+ * The process service registry. The executors are registered during the
+ * loading and the registry is frozen to immutable process and work item tables
+ * after that.
  *
  * @author Andrej_Petras
  */
 public final class ProcessServiceRegistry {
 
     /**
-     * The execute executor.
+     * The logger for this class.
      */
-    private final Map<String, ProcessServiceExecutor> executeExecutor;
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceRegistry.class.getName());
 
     /**
-     * The abort executor.
+     * The execute executors by process and work item.
      */
-    private final Map<String, ProcessServiceExecutor> abortExecutor;
+    private final Map<String, Map<String, ProcessServiceExecutor>> executeExecutor;
+
+    /**
+     * The abort executors by process and work item.
+     */
+    private final Map<String, Map<String, ProcessServiceExecutor>> abortExecutor;
+
+    /**
+     * The list of registered executors.
+     */
+    private final List<ProcessServiceExecutor> executors;
+
+    /**
+     * The frozen execute executor table.
+     */
+    private StringHashTable<StringHashTable<ProcessServiceExecutor>> executeTable;
+
+    /**
+     * The frozen abort executor table.
+     */
+    private StringHashTable<StringHashTable<ProcessServiceExecutor>> abortTable;
 
     /**
      * The default constructor.
@@ -41,6 +69,16 @@ public final class ProcessServiceRegistry {
     public ProcessServiceRegistry() {
         this.executeExecutor = new HashMap<>();
         this.abortExecutor = new HashMap<>();
+        this.executors = new ArrayList<>();
+    }
+
+    /**
+     * Gets the list of registered executors.
+     *
+     * @return the list of registered executors.
+     */
+    public List<ProcessServiceExecutor> getExecutors() {
+        return Collections.unmodifiableList(executors);
     }
 
     /**
@@ -51,27 +89,34 @@ public final class ProcessServiceRegistry {
      * @return the corresponding executor.
      */
     public ProcessServiceExecutor getAbort(final String process, final String workItem) {
-        return abortExecutor.get(getExecutorId(process, workItem));
+        if (abortTable != null) {
+            return get(abortTable, process, workItem);
+        }
+        return get(abortExecutor, process, workItem);
     }
 
     /**
      * Adds the executor.
      *
      * @param executor the executor.
+     * @throws IllegalStateException if the registry is frozen.
      */
     public void addExecutor(ProcessServiceExecutor executor) {
         if (executor != null) {
+            if (isFrozen()) {
+                throw new IllegalStateException("The registry is frozen, executor " + executor.getId() + " can not be registred");
+            }
             if (executor.isAbort()) {
-                if (abortExecutor.containsKey(executor.getId())) {
-                    System.out.println("Abort executor for " + executor.getId() + " already registred");
+                if (!add(abortExecutor, executor)) {
+                    LOGGER.log(Level.WARNING, "Abort executor for {0} already registred", executor.getId());
                 } else {
-                    abortExecutor.put(executor.getId(), executor);
+                    executors.add(executor);
                 }
             } else {
-                if (executeExecutor.containsKey(executor.getId())) {
-                    System.out.println("Execute executor for " + executor.getId() + " already registred");
+                if (!add(executeExecutor, executor)) {
+                    LOGGER.log(Level.WARNING, "Execute executor for {0} already registred", executor.getId());
                 } else {
-                    executeExecutor.put(executor.getId(), executor);
+                    executors.add(executor);
                 }
             }
         }
@@ -85,7 +130,30 @@ public final class ProcessServiceRegistry {
      * @return the corresponding executor.
      */
     public ProcessServiceExecutor getExecute(final String process, final String workItem) {
-        return executeExecutor.get(getExecutorId(process, workItem));
+        if (executeTable != null) {
+            return get(executeTable, process, workItem);
+        }
+        return get(executeExecutor, process, workItem);
+    }
+
+    /**
+     * Freezes the registry. The executors are copied to the immutable tables
+     * and no executor can be added after this call.
+     */
+    public void freeze() {
+        if (!isFrozen()) {
+            abortTable = createTable(abortExecutor);
+            executeTable = createTable(executeExecutor);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the registry is frozen.
+     *
+     * @return <code>true</code> if the registry is frozen.
+     */
+    public boolean isFrozen() {
+        return executeTable != null;
     }
 
     /**
@@ -97,8 +165,76 @@ public final class ProcessServiceRegistry {
      */
     public static String getExecutorId(String process, String workItem) {
         StringBuilder sb = new StringBuilder();
-        sb.append(process).append(workItem);
+        sb.append(process).append('/').append(workItem);
         return sb.toString();
     }
 
+    /**
+     * Adds the executor to the process and work item map.
+     *
+     * @param executors the executors.
+     * @param executor the executor.
+     * @return <code>true</code> if the executor was added.
+     */
+    private static boolean add(Map<String, Map<String, ProcessServiceExecutor>> executors, ProcessServiceExecutor executor) {
+        Map<String, ProcessServiceExecutor> items = executors.get(executor.getProcess());
+        if (items == null) {
+            items = new HashMap<>();
+            executors.put(executor.getProcess(), items);
+        }
+        if (items.containsKey(executor.getWorkItem())) {
+            return false;
+        }
+        items.put(executor.getWorkItem(), executor);
+        return true;
+    }
+
+    /**
+     * Gets the executor from the process and work item map.
+     *
+     * @param executors the executors.
+     * @param process the process.
+     * @param workItem the work item.
+     * @return the corresponding executor.
+     */
+    private static ProcessServiceExecutor get(Map<String, Map<String, ProcessServiceExecutor>> executors, String process, String workItem) {
+        Map<String, ProcessServiceExecutor> items = executors.get(process);
+        if (items != null) {
+            return items.get(workItem);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the executor from the process and work item table.
+     *
+     * @param executors the executors.
+     * @param process the process.
+     * @param workItem the work item.
+     * @return the corresponding executor.
+     */
+    private static ProcessServiceExecutor get(StringHashTable<StringHashTable<ProcessServiceExecutor>> executors, String process, String workItem) {
+        StringHashTable<ProcessServiceExecutor> items = executors.get(process);
+        if (items != null) {
+            return items.get(workItem);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the immutable process and work item table.
+     *
+     * @param executors the executors.
+     * @return the corresponding table.
+     */
+    private static StringHashTable<StringHashTable<ProcessServiceExecutor>> createTable(Map<String, Map<String, ProcessServiceExecutor>> executors) {
+        if (executors.isEmpty()) {
+            return StringHashTable.empty();
+        }
+        Map<String, StringHashTable<ProcessServiceExecutor>> tmp = new HashMap<>();
+        for (Entry<String, Map<String, ProcessServiceExecutor>> e : executors.entrySet()) {
+            tmp.put(e.getKey(), new StringHashTable<>(e.getValue()));
+        }
+        return new StringHashTable<>(tmp);
+    }
 }
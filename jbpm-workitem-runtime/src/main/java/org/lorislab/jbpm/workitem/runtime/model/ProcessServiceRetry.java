@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The process service retry policy. The delay of the retry grows
+ * exponentially from the initial delay up to the maximal delay and the
+ * random jitter between the half and the full delay spreads the retries of
+ * the concurrent failures.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceRetry {
+
+    /**
+     * The maximum number of attempts.
+     */
+    private final int attempts;
+
+    /**
+     * The initial delay in nanoseconds.
+     */
+    private final long delay;
+
+    /**
+     * The maximal delay in nanoseconds.
+     */
+    private final long maxDelay;
+
+    /**
+     * The retryable exception types.
+     */
+    private final Class<?>[] retryOn;
+
+    /**
+     * The number of scheduled retries.
+     */
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * The default constructor.
+     *
+     * @param attempts the maximum number of attempts including the first
+     * execution.
+     * @param delay the initial delay in milliseconds.
+     * @param maxDelay the maximal delay in milliseconds.
+     * @param retryOn the retryable exception types or the empty array for all
+     * exceptions.
+     */
+    public ProcessServiceRetry(int attempts, long delay, long maxDelay, Class<?>[] retryOn) {
+        this.attempts = attempts;
+        this.delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        this.maxDelay = TimeUnit.MILLISECONDS.toNanos(Math.max(delay, maxDelay));
+        this.retryOn = retryOn;
+    }
+
+    /**
+     * Returns <code>true</code> if the failed attempt should be retried.
+     *
+     * @param ex the error of the attempt.
+     * @param attempt the number of the failed attempt starting with
+     * <code>1</code>.
+     * @return <code>true</code> if the attempt should be retried.
+     */
+    public boolean isRetryable(Throwable ex, int attempt) {
+        if (attempt >= attempts) {
+            return false;
+        }
+        if (retryOn.length == 0) {
+            return true;
+        }
+        for (Class<?> type : retryOn) {
+            if (type.isInstance(ex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the delay of the next attempt and counts the retry.
+     *
+     * @param attempt the number of the failed attempt starting with
+     * <code>1</code>.
+     * @return the delay in nanoseconds.
+     */
+    public long nextDelay(int attempt) {
+        retries.increment();
+        long result = maxDelay;
+        int shift = attempt - 1;
+        if (shift < 63 && delay <= (maxDelay >> shift)) {
+            result = delay << shift;
+        }
+        long half = result / 2;
+        if (half > 0) {
+            result = half + ThreadLocalRandom.current().nextLong(half + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the maximum number of attempts.
+     *
+     * @return the maximum number of attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Gets the number of scheduled retries.
+     *
+     * @return the number of scheduled retries.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+}
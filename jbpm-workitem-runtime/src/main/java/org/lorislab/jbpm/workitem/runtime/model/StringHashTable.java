@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.model;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The immutable open addressing hash table with string keys. The hash codes
+ * of the keys are stored in the table and the lookup does not allocate.
+ *
+ * @author Andrej_Petras
+ * @param <V> the value type.
+ */
+final class StringHashTable<V> {
+
+    /**
+     * The empty table.
+     */
+    private static final StringHashTable<?> EMPTY = new StringHashTable<>(null);
+
+    /**
+     * The keys.
+     */
+    private final String[] keys;
+
+    /**
+     * The hash codes of the keys.
+     */
+    private final int[] hashes;
+
+    /**
+     * The values.
+     */
+    private final Object[] values;
+
+    /**
+     * The index mask.
+     */
+    private final int mask;
+
+    /**
+     * The default constructor.
+     *
+     * @param map the source map.
+     */
+    StringHashTable(Map<String, V> map) {
+        int size = map == null ? 0 : map.size();
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        if (map != null) {
+            for (Entry<String, V> e : map.entrySet()) {
+                int hash = e.getKey().hashCode();
+                int index = spread(hash) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = e.getKey();
+                hashes[index] = hash;
+                values[index] = e.getValue();
+            }
+        }
+    }
+
+    /**
+     * Gets the empty table.
+     *
+     * @param <V> the value type.
+     * @return the empty table.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> StringHashTable<V> empty() {
+        return (StringHashTable<V>) EMPTY;
+    }
+
+    /**
+     * Gets the value for the key.
+     *
+     * @param key the key.
+     * @return the value or <code>null</code> if the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = key.hashCode();
+        int index = spread(hash) & mask;
+        String k;
+        while ((k = keys[index]) != null) {
+            if (hashes[index] == hash && (k == key || k.equals(key))) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Spreads the hash code to the lower bits.
+     *
+     * @param hash the hash code.
+     * @return the spread hash code.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
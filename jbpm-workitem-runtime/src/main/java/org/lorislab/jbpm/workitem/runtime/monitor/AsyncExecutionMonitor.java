@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.monitor;
+
+import org.lorislab.jbpm.workitem.runtime.service.AsyncExecutionService;
+
+/**
+ * The asynchronous execution monitor.
+ *
+ * @author Andrej_Petras
+ */
+public final class AsyncExecutionMonitor implements AsyncExecutionMonitorMBean {
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getBackendName() {
+        return AsyncExecutionService.getBackendName();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getQueueDepth() {
+        return AsyncExecutionService.getQueueDepth();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getActiveCount() {
+        return AsyncExecutionService.getActiveCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getSubmittedCount() {
+        return AsyncExecutionService.getSubmittedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getCompletedCount() {
+        return AsyncExecutionService.getCompletedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getRejectedCount() {
+        return AsyncExecutionService.getRejectedCount();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.monitor;
+
+/**
+ * The asynchronous execution monitor.
+ *
+ * @author Andrej_Petras
+ */
+public interface AsyncExecutionMonitorMBean {
+
+    /**
+     * Gets the execution backend name.
+     *
+     * @return the execution backend name.
+     */
+    public String getBackendName();
+
+    /**
+     * Gets the number of waiting tasks.
+     *
+     * @return the number of waiting tasks.
+     */
+    public int getQueueDepth();
+
+    /**
+     * Gets the number of running tasks.
+     *
+     * @return the number of running tasks.
+     */
+    public int getActiveCount();
+
+    /**
+     * Gets the number of submitted tasks.
+     *
+     * @return the number of submitted tasks.
+     */
+    public long getSubmittedCount();
+
+    /**
+     * Gets the number of completed tasks.
+     *
+     * @return the number of completed tasks.
+     */
+    public long getCompletedCount();
+
+    /**
+     * Gets the number of rejected tasks.
+     *
+     * @return the number of rejected tasks.
+     */
+    public long getRejectedCount();
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+
+/**
+ * The monitoring service. The service keeps the monitors of the loaded
+ * executors and publishes them in the platform MBean server. The JMX
+ * registration can be disabled by the system property
+ * <code>org.lorislab.jbpm.workitem.jmx=false</code>.
+ *
+ * @author Andrej_Petras
+ */
+public final class MonitoringService {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(MonitoringService.class.getName());
+
+    /**
+     * The JMX system property.
+     */
+    public static final String PROPERTY_JMX = "org.lorislab.jbpm.workitem.jmx";
+
+    /**
+     * The JMX domain.
+     */
+    public static final String DOMAIN = "org.lorislab.jbpm.workitem";
+
+    /**
+     * The JMX flag.
+     */
+    private static final boolean JMX = Boolean.parseBoolean(System.getProperty(PROPERTY_JMX, "true"));
+
+    /**
+     * The registrations by registry.
+     */
+    private static final ConcurrentMap<ProcessServiceRegistry, Registration> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    static {
+        if (JMX) {
+            register(name("type", "AsyncExecution"), new AsyncExecutionMonitor());
+        }
+    }
+
+    /**
+     * The default constructor.
+     */
+    private MonitoringService() {
+        // empty constructor
+    }
+
+    /**
+     * Registers the monitors of the registry executors.
+     *
+     * @param deploymentId the deployment id.
+     * @param registry the registry.
+     */
+    public static void register(String deploymentId, ProcessServiceRegistry registry) {
+        Registration registration = new Registration();
+        for (ProcessServiceExecutor executor : registry.getExecutors()) {
+            ProcessServiceMonitor monitor = new ProcessServiceMonitor(deploymentId, executor);
+            registration.monitors.add(monitor);
+            if (JMX) {
+                ObjectName name = name("type", "ProcessService", "deployment", String.valueOf(deploymentId),
+                        "process", executor.getProcess(), "workItem", executor.getWorkItem(), "mode", monitor.getMode());
+                if (name != null && register(name, monitor)) {
+                    registration.names.add(name);
+                }
+            }
+        }
+        REGISTRATIONS.put(registry, registration);
+    }
+
+    /**
+     * Unregisters the monitors of the registry executors.
+     *
+     * @param registry the registry.
+     */
+    public static void unregister(ProcessServiceRegistry registry) {
+        Registration registration = REGISTRATIONS.remove(registry);
+        if (registration != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : registration.names) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException ex) {
+                    LOGGER.log(Level.WARNING, "Error unregister the MBean " + name, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the monitors of all loaded executors.
+     *
+     * @return the list of monitors.
+     */
+    public static List<ProcessServiceMonitor> getMonitors() {
+        List<ProcessServiceMonitor> result = new ArrayList<>();
+        for (Registration registration : REGISTRATIONS.values()) {
+            result.addAll(registration.monitors);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the monitors of the deployment executors.
+     *
+     * @param deploymentId the deployment id.
+     * @return the list of monitors.
+     */
+    public static List<ProcessServiceMonitor> getMonitors(String deploymentId) {
+        List<ProcessServiceMonitor> result = new ArrayList<>();
+        for (Registration registration : REGISTRATIONS.values()) {
+            for (ProcessServiceMonitor monitor : registration.monitors) {
+                if (deploymentId == null ? monitor.getDeploymentId() == null : deploymentId.equals(monitor.getDeploymentId())) {
+                    result.add(monitor);
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Registers the MBean.
+     *
+     * @param name the object name.
+     * @param mbean the MBean.
+     * @return <code>true</code> if the MBean was registered.
+     */
+    private static boolean register(ObjectName name, Object mbean) {
+        if (name == null) {
+            return false;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+            return true;
+        } catch (JMException ex) {
+            LOGGER.log(Level.WARNING, "Error register the MBean " + name, ex);
+        }
+        return false;
+    }
+
+    /**
+     * Creates the object name.
+     *
+     * @param properties the key and value pairs.
+     * @return the object name or <code>null</code> if the name is not valid.
+     */
+    private static ObjectName name(String... properties) {
+        StringBuilder sb = new StringBuilder(DOMAIN);
+        for (int i = 0; i < properties.length; i = i + 2) {
+            sb.append(i == 0 ? ':' : ',').append(properties[i]).append('=').append(value(properties[i + 1]));
+        }
+        try {
+            return new ObjectName(sb.toString());
+        } catch (JMException ex) {
+            LOGGER.log(Level.WARNING, "Not valid object name " + sb, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the object name value. The value is quoted only if it contains the
+     * special characters.
+     *
+     * @param value the value.
+     * @return the object name value.
+     */
+    private static String value(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (",=:\"*?\n\\".indexOf(value.charAt(i)) >= 0) {
+                return ObjectName.quote(value);
+            }
+        }
+        return value.isEmpty() ? ObjectName.quote(value) : value;
+    }
+
+    /**
+     * The registry registration.
+     */
+    private static final class Registration {
+
+        /**
+         * The executor monitors.
+         */
+        private final List<ProcessServiceMonitor> monitors = new ArrayList<>();
+
+        /**
+         * The registered object names.
+         */
+        private final List<ObjectName> names = new ArrayList<>();
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.monitor;
+
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCache;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCircuit;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceConcurrency;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceLimit;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceMetrics;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRate;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRetry;
+
+/**
+ * The process service executor monitor.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceMonitor implements ProcessServiceMonitorMBean {
+
+    /**
+     * The deployment id.
+     */
+    private final String deploymentId;
+
+    /**
+     * The executor.
+     */
+    private final ProcessServiceExecutor executor;
+
+    /**
+     * The default constructor.
+     *
+     * @param deploymentId the deployment id.
+     * @param executor the executor.
+     */
+    public ProcessServiceMonitor(String deploymentId, ProcessServiceExecutor executor) {
+        this.deploymentId = deploymentId;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the executor.
+     *
+     * @return the executor.
+     */
+    public ProcessServiceExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getDeploymentId() {
+        return deploymentId;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getProcess() {
+        return executor.getProcess();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getWorkItem() {
+        return executor.getWorkItem();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getMode() {
+        return executor.isAbort() ? "abort" : "execute";
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getSuccessCount() {
+        return metrics().getSuccessCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getFailureCount() {
+        return metrics().getFailureCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getTimeoutCount() {
+        return metrics().getTimeoutCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getTimeout() {
+        return executor.getTimeout();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getRetryAttempts() {
+        ProcessServiceRetry retry = executor.getRetry();
+        return retry == null ? 0 : retry.getAttempts();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getRetryCount() {
+        ProcessServiceRetry retry = executor.getRetry();
+        return retry == null ? 0 : retry.getRetryCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getCircuitState() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        return circuit == null ? "NONE" : circuit.getStateName();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getCircuitFailureRate() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        return circuit == null ? 0 : circuit.getFailureRate();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getCircuitSlowCallRate() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        return circuit == null ? 0 : circuit.getSlowCallRate();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getCircuitRejectedCount() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        return circuit == null ? 0 : circuit.getRejectedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getCircuitOpenedCount() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        return circuit == null ? 0 : circuit.getOpenedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void resetCircuit() {
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        if (circuit != null) {
+            circuit.reset();
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getInFlightCount() {
+        return metrics().getInFlightCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getMeanTime() {
+        return metrics().getMeanTime();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getPercentile50() {
+        return metrics().getPercentile(0.5d);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getPercentile95() {
+        return metrics().getPercentile(0.95d);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getPercentile99() {
+        return metrics().getPercentile(0.99d);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long[] getHistogram() {
+        return metrics().getHistogram();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getCacheHitCount() {
+        ProcessServiceCache cache = executor.getCache();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getCacheMissCount() {
+        ProcessServiceCache cache = executor.getCache();
+        return cache == null ? 0 : cache.getMissCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getCacheSize() {
+        ProcessServiceCache cache = executor.getCache();
+        return cache == null ? 0 : cache.getSize();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void invalidateCache() {
+        ProcessServiceCache cache = executor.getCache();
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getPendingCount() {
+        ProcessServiceConcurrency concurrency = executor.getConcurrency();
+        return concurrency == null ? 0 : concurrency.getPendingCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getLimit() {
+        ProcessServiceLimit limit = executor.getLimit();
+        return limit == null ? 0 : limit.getLimit();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getMaxLimit() {
+        ProcessServiceLimit limit = executor.getLimit();
+        return limit == null ? 0 : limit.getMaxLimit();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void setMaxLimit(int value) {
+        ProcessServiceLimit limit = executor.getLimit();
+        if (limit == null) {
+            throw new IllegalStateException("The work item " + executor.getId() + " has no concurrency limit.");
+        }
+        limit.setMaxLimit(value);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean isAdaptiveLimit() {
+        ProcessServiceLimit limit = executor.getLimit();
+        return limit != null && limit.isAdaptive();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getRejectedCount() {
+        ProcessServiceLimit limit = executor.getLimit();
+        return limit == null ? 0 : limit.getRejectedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public double getRate() {
+        ProcessServiceRate rate = executor.getRate();
+        return rate == null ? 0 : rate.getRate();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void setRate(double value) {
+        ProcessServiceRate rate = executor.getRate();
+        if (rate == null) {
+            throw new IllegalStateException("The work item " + executor.getId() + " has no rate limit.");
+        }
+        rate.setRate(value, 0);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getRateRejectedCount() {
+        ProcessServiceRate rate = executor.getRate();
+        return rate == null ? 0 : rate.getRejectedCount();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getRateDelayedCount() {
+        ProcessServiceRate rate = executor.getRate();
+        return rate == null ? 0 : rate.getDelayedCount();
+    }
+
+    /**
+     * Gets the executor metrics.
+     *
+     * @return the executor metrics.
+     */
+    private ProcessServiceMetrics metrics() {
+        return executor.getMetrics();
+    }
+}
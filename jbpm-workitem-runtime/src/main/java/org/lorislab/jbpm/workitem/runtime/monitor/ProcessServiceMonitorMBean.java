@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.monitor;
+
+/**
+ * The process service executor monitor.
+ *
+ * @author Andrej_Petras
+ */
+public interface ProcessServiceMonitorMBean {
+
+    /**
+     * Gets the deployment id.
+     *
+     * @return the deployment id.
+     */
+    public String getDeploymentId();
+
+    /**
+     * Gets the process.
+     *
+     * @return the process.
+     */
+    public String getProcess();
+
+    /**
+     * Gets the work item.
+     *
+     * @return the work item.
+     */
+    public String getWorkItem();
+
+    /**
+     * Gets the executor mode.
+     *
+     * @return the executor mode <code>execute</code> or <code>abort</code>.
+     */
+    public String getMode();
+
+    /**
+     * Gets the number of successful executions.
+     *
+     * @return the number of successful executions.
+     */
+    public long getSuccessCount();
+
+    /**
+     * Gets the number of failed executions.
+     *
+     * @return the number of failed executions.
+     */
+    public long getFailureCount();
+
+    /**
+     * Gets the number of timed out executions.
+     *
+     * @return the number of timed out executions.
+     */
+    public long getTimeoutCount();
+
+    /**
+     * Gets the execution timeout in milliseconds.
+     *
+     * @return the execution timeout or <code>0</code> for no timeout.
+     */
+    public long getTimeout();
+
+    /**
+     * Gets the maximum number of the execution attempts.
+     *
+     * @return the maximum number of the execution attempts or <code>0</code>
+     * for no retry.
+     */
+    public int getRetryAttempts();
+
+    /**
+     * Gets the number of the retried executions.
+     *
+     * @return the number of the retried executions.
+     */
+    public long getRetryCount();
+
+    /**
+     * Gets the circuit breaker state.
+     *
+     * @return the circuit breaker state or <code>NONE</code> for no circuit
+     * breaker.
+     */
+    public String getCircuitState();
+
+    /**
+     * Gets the failure rate of the circuit breaker sliding window.
+     *
+     * @return the failure rate in percent.
+     */
+    public double getCircuitFailureRate();
+
+    /**
+     * Gets the slow call rate of the circuit breaker sliding window.
+     *
+     * @return the slow call rate in percent.
+     */
+    public double getCircuitSlowCallRate();
+
+    /**
+     * Gets the number of the executions rejected by the open circuit.
+     *
+     * @return the number of the rejected executions.
+     */
+    public long getCircuitRejectedCount();
+
+    /**
+     * Gets the number of the circuit openings.
+     *
+     * @return the number of the circuit openings.
+     */
+    public long getCircuitOpenedCount();
+
+    /**
+     * Resets the circuit breaker to the closed state.
+     */
+    public void resetCircuit();
+
+    /**
+     * Gets the number of running executions.
+     *
+     * @return the number of running executions.
+     */
+    public long getInFlightCount();
+
+    /**
+     * Gets the mean execution time in milliseconds.
+     *
+     * @return the mean execution time in milliseconds.
+     */
+    public double getMeanTime();
+
+    /**
+     * Gets the median execution time in milliseconds.
+     *
+     * @return the median execution time in milliseconds.
+     */
+    public double getPercentile50();
+
+    /**
+     * Gets the 95th percentile of the execution time in milliseconds.
+     *
+     * @return the 95th percentile of the execution time in milliseconds.
+     */
+    public double getPercentile95();
+
+    /**
+     * Gets the 99th percentile of the execution time in milliseconds.
+     *
+     * @return the 99th percentile of the execution time in milliseconds.
+     */
+    public double getPercentile99();
+
+    /**
+     * Gets the latency histogram with the power of two microsecond buckets.
+     *
+     * @return the latency histogram.
+     */
+    public long[] getHistogram();
+
+    /**
+     * Gets the number of result cache hits.
+     *
+     * @return the number of result cache hits.
+     */
+    public long getCacheHitCount();
+
+    /**
+     * Gets the number of result cache misses.
+     *
+     * @return the number of result cache misses.
+     */
+    public long getCacheMissCount();
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return the number of cached results.
+     */
+    public int getCacheSize();
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateCache();
+
+    /**
+     * Gets the number of asynchronous executions waiting for the free slot of
+     * the maximum concurrency.
+     *
+     * @return the number of pending asynchronous executions.
+     */
+    public int getPendingCount();
+
+    /**
+     * Gets the current concurrency limit.
+     *
+     * @return the current concurrency limit or <code>0</code> if the
+     * executions are not limited.
+     */
+    public int getLimit();
+
+    /**
+     * Gets the maximal concurrency limit.
+     *
+     * @return the maximal concurrency limit or <code>0</code> if the
+     * executions are not limited.
+     */
+    public int getMaxLimit();
+
+    /**
+     * Sets the maximal concurrency limit. The static limit is set to the
+     * value and the adaptive limit is bounded by the value.
+     *
+     * @param limit the maximal concurrency limit.
+     */
+    public void setMaxLimit(int limit);
+
+    /**
+     * Returns <code>true</code> if the concurrency limit is adaptive.
+     *
+     * @return <code>true</code> if the concurrency limit is adaptive.
+     */
+    public boolean isAdaptiveLimit();
+
+    /**
+     * Gets the number of the executions rejected by the concurrency limit.
+     *
+     * @return the number of rejected executions.
+     */
+    public long getRejectedCount();
+
+    /**
+     * Gets the rate limit in executions per second.
+     *
+     * @return the rate limit or <code>0</code> if the executions are not
+     * rate limited.
+     */
+    public double getRate();
+
+    /**
+     * Sets the rate limit in executions per second. The bucket size is the
+     * number of executions per second.
+     *
+     * @param rate the rate limit.
+     */
+    public void setRate(double rate);
+
+    /**
+     * Gets the number of the executions rejected by the rate limit.
+     *
+     * @return the number of rejected executions.
+     */
+    public long getRateRejectedCount();
+
+    /**
+     * Gets the number of the asynchronous executions delayed by the rate
+     * limit.
+     *
+     * @return the number of delayed executions.
+     */
+    public long getRateDelayedCount();
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+/**
+ * The lazy singleton service provider. The service instance is created for
+ * the first work item.
+ *
+ * @author Andrej_Petras
+ */
+public final class LazyServiceProvider implements ProcessServiceProvider {
+
+    /**
+     * The service class.
+     */
+    private final Class<?> clazz;
+
+    /**
+     * The service instance.
+     */
+    private volatile Object service;
+
+    /**
+     * The default constructor.
+     *
+     * @param clazz the service class.
+     */
+    public LazyServiceProvider(Class<?> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object acquire() throws Exception {
+        Object result = service;
+        if (result == null) {
+            synchronized (this) {
+                result = service;
+                if (result == null) {
+                    result = clazz.newInstance();
+                    service = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void release(Object service) {
+        // shared instance
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() {
+        service = null;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pooled service provider. The instances are created on demand up to the
+ * pool size. If all instances are in use the caller waits for the released
+ * instance. The execution is rejected if no instance is released in the wait
+ * time.
+ * <p>
+ * The closed provider does not pool the instances. The executions of the old
+ * executors which are still running or queued after the reload of the
+ * registry get the new instance and the waiting threads are woken up.
+ *
+ * @author Andrej_Petras
+ */
+public final class PooledServiceProvider implements ProcessServiceProvider {
+
+    /**
+     * The maximum wait time in milliseconds for the released instance system
+     * property.
+     */
+    public static final String PROPERTY_WAIT = "org.lorislab.jbpm.workitem.pool.wait";
+
+    /**
+     * The maximum wait time in milliseconds for the released instance.
+     */
+    private static final long WAIT = Math.max(0, Long.getLong(PROPERTY_WAIT, 10000L));
+
+    /**
+     * The closed marker in the idle queue which wakes up the waiting threads.
+     */
+    private static final Object CLOSED = new Object();
+
+    /**
+     * The service class.
+     */
+    private final Class<?> clazz;
+
+    /**
+     * The pool size.
+     */
+    private final int size;
+
+    /**
+     * The idle instances.
+     */
+    private final BlockingQueue<Object> idle;
+
+    /**
+     * The number of created instances.
+     */
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * The closed flag.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The default constructor.
+     *
+     * @param clazz the service class.
+     * @param size the pool size.
+     */
+    public PooledServiceProvider(Class<?> clazz, int size) {
+        this.clazz = clazz;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object acquire() throws Exception {
+        if (closed) {
+            return clazz.newInstance();
+        }
+        Object result = idle.poll();
+        if (result == CLOSED) {
+            idle.offer(CLOSED);
+            return clazz.newInstance();
+        }
+        if (result != null) {
+            return result;
+        }
+        int count = created.get();
+        while (count < size) {
+            if (created.compareAndSet(count, count + 1)) {
+                try {
+                    return clazz.newInstance();
+                } catch (Exception | Error ex) {
+                    created.decrementAndGet();
+                    throw ex;
+                }
+            }
+            count = created.get();
+        }
+        result = idle.poll(WAIT, TimeUnit.MILLISECONDS);
+        if (result == CLOSED) {
+            idle.offer(CLOSED);
+            return clazz.newInstance();
+        }
+        if (result == null) {
+            throw new RejectedExecutionException("No instance of the service " + clazz.getName() + " was released in " + WAIT + " ms, the pool size " + size + " is exhausted.");
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void release(Object service) {
+        if (service != null && !closed) {
+            idle.offer(service);
+            if (closed) {
+                idle.remove(service);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idle.clear();
+        idle.offer(CLOSED);
+    }
+
+    /**
+     * Gets the pool size.
+     *
+     * @return the pool size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of created instances.
+     *
+     * @return the number of created instances.
+     */
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Gets the number of idle instances.
+     *
+     * @return the number of idle instances.
+     */
+    public int getIdleCount() {
+        return closed ? 0 : idle.size();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+/**
+ * The process service provider. The provider creates the service instances
+ * for the work process scope. Every acquired instance has to be released
+ * after the work item method call.
+ *
+ * @author Andrej_Petras
+ */
+public interface ProcessServiceProvider {
+
+    /**
+     * Acquires the service instance.
+     *
+     * @return the service instance.
+     * @throws Exception if the service instance could not be created.
+     */
+    public Object acquire() throws Exception;
+
+    /**
+     * Releases the service instance.
+     *
+     * @param service the service instance.
+     */
+    public void release(Object service);
+
+    /**
+     * Closes the provider and releases the created instances.
+     */
+    public void close();
+}
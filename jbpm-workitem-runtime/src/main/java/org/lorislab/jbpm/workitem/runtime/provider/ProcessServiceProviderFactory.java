@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+import org.lorislab.jbpm.workitem.api.annotation.WorkProcessScope;
+
+/**
+ * The process service provider factory.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceProviderFactory {
+
+    /**
+     * The default constructor.
+     */
+    private ProcessServiceProviderFactory() {
+        // empty constructor
+    }
+
+    /**
+     * Creates the service provider for the work process scope. The instance
+     * of the singleton scope is created immediately.
+     *
+     * @param clazz the service class.
+     * @param scope the work process scope.
+     * @param poolSize the pool size of the pooled scope.
+     * @return the service provider.
+     * @throws Exception if the singleton instance could not be created.
+     */
+    public static ProcessServiceProvider create(Class<?> clazz, WorkProcessScope scope, int poolSize) throws Exception {
+        if (scope == null) {
+            return new SingletonServiceProvider(clazz.newInstance());
+        }
+        switch (scope) {
+            case LAZY:
+                return new LazyServiceProvider(clazz);
+            case THREAD:
+                return new ThreadServiceProvider(clazz);
+            case POOLED:
+                int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+                return new PooledServiceProvider(clazz, size);
+            default:
+                return new SingletonServiceProvider(clazz.newInstance());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+/**
+ * The singleton service provider. The service instance is created when the
+ * provider is created.
+ *
+ * @author Andrej_Petras
+ */
+public final class SingletonServiceProvider implements ProcessServiceProvider {
+
+    /**
+     * The service instance.
+     */
+    private final Object service;
+
+    /**
+     * The default constructor.
+     *
+     * @param service the service instance.
+     */
+    public SingletonServiceProvider(Object service) {
+        this.service = service;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object acquire() {
+        return service;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void release(Object service) {
+        // shared instance
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() {
+        // shared instance
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.provider;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The thread service provider. The service instance is created for every
+ * thread which executes the work item.
+ * <p>
+ * The instances are stored in the holders which are registered in the
+ * provider, so the close releases the instances of all threads and not only
+ * the instance of the closing thread. The thread local values are the empty
+ * holders after the close and do not keep the service class loader. The
+ * closed provider creates the new instance for every execution.
+ * <p>
+ * The holders reference the threads weakly. The holders of the collected
+ * threads are removed when the next thread registers its holder, so the
+ * provider does not grow with the thread churn or the virtual threads.
+ *
+ * @author Andrej_Petras
+ */
+public final class ThreadServiceProvider implements ProcessServiceProvider {
+
+    /**
+     * The service class.
+     */
+    private final Class<?> clazz;
+
+    /**
+     * The service instance of the thread.
+     */
+    private final ThreadLocal<Holder> services = new ThreadLocal<>();
+
+    /**
+     * The holders of all threads.
+     */
+    private final Set<Holder> holders = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The reference queue of the collected threads.
+     */
+    private final ReferenceQueue<Thread> queue = new ReferenceQueue<>();
+
+    /**
+     * The closed flag.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The default constructor.
+     *
+     * @param clazz the service class.
+     */
+    public ThreadServiceProvider(Class<?> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object acquire() throws Exception {
+        Holder holder = services.get();
+        if (holder != null && holder.service != null) {
+            return holder.service;
+        }
+        Object result = clazz.newInstance();
+        if (closed) {
+            return result;
+        }
+        if (holder == null) {
+            expunge();
+            holder = new Holder(Thread.currentThread(), queue);
+            services.set(holder);
+            holders.add(holder);
+        }
+        holder.service = result;
+        if (closed) {
+            holder.service = null;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void release(Object service) {
+        // thread instance
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Holder holder : holders) {
+            holder.service = null;
+        }
+        holders.clear();
+        services.remove();
+    }
+
+    /**
+     * Removes the holders of the collected threads.
+     */
+    private void expunge() {
+        Reference<? extends Thread> ref;
+        while ((ref = queue.poll()) != null) {
+            Holder holder = (Holder) ref;
+            holder.service = null;
+            holders.remove(holder);
+        }
+    }
+
+    /**
+     * The holder of the service instance of the thread. The holder references
+     * the thread weakly.
+     */
+    private static final class Holder extends WeakReference<Thread> {
+
+        /**
+         * The service instance.
+         */
+        private volatile Object service;
+
+        /**
+         * The default constructor.
+         *
+         * @param thread the thread.
+         * @param queue the reference queue of the collected threads.
+         */
+        Holder(Thread thread, ReferenceQueue<Thread> queue) {
+            super(thread, queue);
+        }
+    }
+}
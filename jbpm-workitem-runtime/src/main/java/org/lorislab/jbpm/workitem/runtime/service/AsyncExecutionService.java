@@ -0,0 +1,379 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceConcurrency;
+
+/**
+ * The asynchronous execution service. The asynchronous work items are executed
+ * by the {@link ProcessExecutionBackend}. The backend is selected by the system
+ * property <code>org.lorislab.jbpm.workitem.async.backend</code>. Without the
+ * property the first available backend from the {@link ServiceLoader} is used
+ * and the {@link ThreadPoolExecutionBackend} is the fallback.
+ * <p>
+ * The tasks of the work item with the maximum concurrency are handed to the
+ * backend only if the work item has a free slot. The other tasks wait in the
+ * pending queue of the work item and the finished task hands the next pending
+ * task to the backend, so the waiting tasks never occupy the backend threads.
+ * The pending queue is bounded by the queue capacity of the backend, the task
+ * over the capacity is rejected to the caller and the pending task rejected
+ * by the backend is notified by
+ * {@link AsyncExecutionTask#rejected(java.util.concurrent.RejectedExecutionException)}.
+ *
+ * @author Andrej_Petras
+ */
+public final class AsyncExecutionService {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(AsyncExecutionService.class.getName());
+
+    /**
+     * The backend system property.
+     */
+    public static final String PROPERTY_BACKEND = "org.lorislab.jbpm.workitem.async.backend";
+
+    /**
+     * The number of submitted tasks.
+     */
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+
+    /**
+     * The number of rejected tasks.
+     */
+    private static final AtomicLong REJECTED = new AtomicLong();
+
+    /**
+     * The number of completed tasks.
+     */
+    private static final AtomicLong COMPLETED = new AtomicLong();
+
+    /**
+     * The number of running tasks.
+     */
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    /**
+     * The number of tasks in the pending queues of the work items.
+     */
+    private static final AtomicInteger PENDING = new AtomicInteger();
+
+    /**
+     * The execution backend.
+     */
+    private static volatile ProcessExecutionBackend BACKEND;
+
+    /**
+     * The default constructor.
+     */
+    private AsyncExecutionService() {
+        // empty constructor
+    }
+
+    /**
+     * Submits the task to the execution backend. The task of the work item
+     * without a free concurrency slot is added to the pending queue of the
+     * work item and is submitted when the running task finishes.
+     *
+     * @param task the task.
+     * @param classLoader the deployment class loader or <code>null</code>.
+     * @param concurrency the work item concurrency gate or <code>null</code>
+     * for the not limited work item.
+     * @throws RejectedExecutionException if the task is rejected by the
+     * backend or the pending queue of the work item is full.
+     */
+    public static void submit(AsyncExecutionTask task, ClassLoader classLoader, ProcessServiceConcurrency concurrency) throws RejectedExecutionException {
+        Task item = new Task(task, classLoader, concurrency);
+        if (concurrency == null) {
+            execute(item);
+        } else if (concurrency.tryAcquire()) {
+            try {
+                execute(item);
+            } catch (RejectedExecutionException ex) {
+                concurrency.release();
+                drain(concurrency);
+                throw ex;
+            }
+        } else {
+            int capacity = getBackend().getQueueCapacity();
+            if (!concurrency.offer(item, capacity)) {
+                REJECTED.incrementAndGet();
+                throw new RejectedExecutionException("The pending queue capacity " + capacity + " of the work item is reached.");
+            }
+            PENDING.incrementAndGet();
+            // the running tasks could finish before the task was queued
+            drain(concurrency);
+        }
+    }
+
+    /**
+     * Hands the pending tasks of the work item to the execution backend while
+     * the work item has a free concurrency slot. The task rejected by the
+     * backend is notified about the rejection.
+     *
+     * @param concurrency the work item concurrency gate.
+     */
+    private static void drain(ProcessServiceConcurrency concurrency) {
+        while (!concurrency.isEmpty() && concurrency.tryAcquire()) {
+            Task task = (Task) concurrency.poll();
+            if (task == null) {
+                concurrency.release();
+            } else {
+                PENDING.decrementAndGet();
+                try {
+                    execute(task);
+                } catch (RejectedExecutionException ex) {
+                    concurrency.release();
+                    LOGGER.log(Level.FINE, "The pending task was rejected by the backend: {0}", ex.getMessage());
+                    task.rejected(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the task in the execution backend.
+     *
+     * @param task the task.
+     * @throws RejectedExecutionException if the task is rejected.
+     */
+    private static void execute(Runnable task) throws RejectedExecutionException {
+        try {
+            getBackend().execute(task);
+            SUBMITTED.incrementAndGet();
+        } catch (RejectedExecutionException ex) {
+            REJECTED.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Schedules the task after the delay in the shared {@link HashedWheelTimer}.
+     * The scheduled task should only submit the work to the execution
+     * backend.
+     *
+     * @param task the task.
+     * @param delay the delay in nanoseconds.
+     */
+    public static void schedule(Runnable task, long delay) {
+        HashedWheelTimer.getDefault().schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the name of the execution backend.
+     *
+     * @return the name of the execution backend or <code>null</code> if the
+     * backend is not created yet.
+     */
+    public static String getBackendName() {
+        ProcessExecutionBackend backend = BACKEND;
+        return backend == null ? null : backend.getName();
+    }
+
+    /**
+     * Gets the number of submitted tasks.
+     *
+     * @return the number of submitted tasks.
+     */
+    public static long getSubmittedCount() {
+        return SUBMITTED.get();
+    }
+
+    /**
+     * Gets the number of rejected tasks.
+     *
+     * @return the number of rejected tasks.
+     */
+    public static long getRejectedCount() {
+        return REJECTED.get();
+    }
+
+    /**
+     * Gets the number of completed tasks.
+     *
+     * @return the number of completed tasks.
+     */
+    public static long getCompletedCount() {
+        return COMPLETED.get();
+    }
+
+    /**
+     * Gets the number of waiting tasks in the queue of the backend and in the
+     * pending queues of the work items.
+     *
+     * @return the number of waiting tasks.
+     */
+    public static int getQueueDepth() {
+        ProcessExecutionBackend backend = BACKEND;
+        return PENDING.get() + (backend == null ? 0 : backend.getQueueDepth());
+    }
+
+    /**
+     * Gets the number of running tasks.
+     *
+     * @return the number of running tasks.
+     */
+    public static int getActiveCount() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Shutdowns the execution backend. The backend is created again by the
+     * next submitted task.
+     */
+    public static synchronized void shutdown() {
+        if (BACKEND != null) {
+            BACKEND.shutdown();
+            BACKEND = null;
+        }
+    }
+
+    /**
+     * Gets the execution backend.
+     *
+     * @return the execution backend.
+     */
+    private static ProcessExecutionBackend getBackend() {
+        ProcessExecutionBackend result = BACKEND;
+        if (result == null) {
+            synchronized (AsyncExecutionService.class) {
+                result = BACKEND;
+                if (result == null) {
+                    result = createBackend(System.getProperty(PROPERTY_BACKEND));
+                    BACKEND = result;
+                    LOGGER.log(Level.INFO, "Asynchronous execution backend: {0}", result.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the execution backend.
+     *
+     * @param name the backend name or <code>null</code>.
+     * @return the execution backend.
+     */
+    private static ProcessExecutionBackend createBackend(String name) {
+        if (ThreadPoolExecutionBackend.NAME.equals(name)) {
+            return new ThreadPoolExecutionBackend();
+        }
+        Iterator<ProcessExecutionBackend> iter = ServiceLoader.load(ProcessExecutionBackend.class, AsyncExecutionService.class.getClassLoader()).iterator();
+        while (iter.hasNext()) {
+            try {
+                ProcessExecutionBackend backend = iter.next();
+                if ((name == null || name.equals(backend.getName())) && backend.isAvailable()) {
+                    return backend;
+                }
+            } catch (ServiceConfigurationError ex) {
+                LOGGER.log(Level.WARNING, "Error loading the execution backend", ex);
+            }
+        }
+        if (name != null) {
+            LOGGER.log(Level.WARNING, "Execution backend {0} is not available, use the thread pool", name);
+        }
+        return new ThreadPoolExecutionBackend();
+    }
+
+    /**
+     * The asynchronous task. The task runs with the deployment class loader
+     * and releases the work item concurrency slot after the execution.
+     */
+    private static final class Task implements Runnable {
+
+        /**
+         * The task.
+         */
+        private final AsyncExecutionTask task;
+
+        /**
+         * The deployment class loader.
+         */
+        private final ClassLoader classLoader;
+
+        /**
+         * The work item concurrency gate.
+         */
+        private final ProcessServiceConcurrency concurrency;
+
+        /**
+         * The default constructor.
+         *
+         * @param task the task.
+         * @param classLoader the deployment class loader.
+         * @param concurrency the work item concurrency gate.
+         */
+        Task(AsyncExecutionTask task, ClassLoader classLoader, ProcessServiceConcurrency concurrency) {
+            this.task = task;
+            this.classLoader = classLoader;
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void run() {
+            Thread thread = Thread.currentThread();
+            ClassLoader old = thread.getContextClassLoader();
+            if (classLoader != null) {
+                thread.setContextClassLoader(classLoader);
+            }
+            ACTIVE.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                ACTIVE.decrementAndGet();
+                COMPLETED.incrementAndGet();
+                thread.setContextClassLoader(old);
+                if (concurrency != null) {
+                    concurrency.release();
+                    drain(concurrency);
+                }
+            }
+        }
+
+        /**
+         * Notifies the rejected task with the deployment class loader.
+         *
+         * @param ex the rejection.
+         */
+        void rejected(RejectedExecutionException ex) {
+            Thread thread = Thread.currentThread();
+            ClassLoader old = thread.getContextClassLoader();
+            if (classLoader != null) {
+                thread.setContextClassLoader(classLoader);
+            }
+            try {
+                task.rejected(ex);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Error notify the rejected task", e);
+            } finally {
+                thread.setContextClassLoader(old);
+            }
+        }
+    }
+}
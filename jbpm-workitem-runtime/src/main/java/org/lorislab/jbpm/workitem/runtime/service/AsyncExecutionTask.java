@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The asynchronous task. The task which was accepted to the pending queue of
+ * the work item and later rejected by the execution backend is notified by
+ * the {@link #rejected(java.util.concurrent.RejectedExecutionException)}
+ * method, so the work items of the task do not stay active in the engine.
+ *
+ * @author Andrej_Petras
+ */
+public interface AsyncExecutionTask extends Runnable {
+
+    /**
+     * The task was rejected by the execution backend.
+     *
+     * @param ex the rejection.
+     */
+    public void rejected(RejectedExecutionException ex);
+}
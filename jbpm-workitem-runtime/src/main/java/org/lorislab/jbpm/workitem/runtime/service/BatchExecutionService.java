@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceBatch;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceMetrics;
+import org.lorislab.jbpm.workitem.runtime.provider.ProcessServiceProvider;
+
+/**
+ * The batch execution service. The pending work items of the batch executor
+ * are collected by count or time window and the batch method is executed once
+ * for all of them in the {@link AsyncExecutionService}. The results are passed
+ * to the callbacks of the work items.
+ *
+ * @author Andrej_Petras
+ */
+public final class BatchExecutionService {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(BatchExecutionService.class.getName());
+
+    /**
+     * The batch window scheduler.
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jbpm-workitem-batch");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * The default constructor.
+     */
+    private BatchExecutionService() {
+        // empty constructor
+    }
+
+    /**
+     * Adds the work item to the batch of the executor.
+     *
+     * @param executor the batch executor.
+     * @param data the execution data.
+     * @param callback the execution callback.
+     * @param classLoader the project class loader.
+     */
+    @SuppressWarnings("unchecked")
+    public static void add(final ProcessServiceExecutor executor, ExecutionData data, ProcessExecutionCallback callback, final ClassLoader classLoader) {
+        ProcessServiceBatch<BatchItem> batch = (ProcessServiceBatch<BatchItem>) executor.getBatch();
+        batch.add(new BatchItem(data, callback), SCHEDULER, new ProcessServiceBatch.Flusher<BatchItem>() {
+
+            @Override
+            public void flush(List<BatchItem> items) {
+                submit(executor, items, classLoader);
+            }
+        });
+    }
+
+    /**
+     * Executes the batch method for the list of execution data in the caller
+     * thread.
+     *
+     * @param executor the batch executor.
+     * @param data the list of execution data.
+     * @return the list of results, one result for each execution data.
+     * @throws Exception if the method fails or does not return one result
+     * for each execution data.
+     */
+    public static List<Map<String, Object>> execute(ProcessServiceExecutor executor, List<ExecutionData> data) throws Exception {
+        ProcessServiceMetrics metrics = executor.getMetrics();
+        final long startTime = metrics.start();
+        ProcessExecutionLog.started(executor);
+        List<Map<String, Object>> result;
+        try {
+            ProcessServiceProvider provider = executor.getProvider();
+            Object service = provider.acquire();
+            try {
+                result = executor.getBatch().getInvoker().invoke(service, data);
+            } finally {
+                provider.release(service);
+            }
+            if (result == null || result.size() != data.size()) {
+                throw new IllegalStateException("The batch method of the work item " + executor.getId() + " returned " + (result == null ? "no results" : result.size() + " results") + " for " + data.size() + " items.");
+            }
+        } catch (Exception ex) {
+            ProcessExecutionLog.failed(executor, metrics.failed(startTime), "batch: " + data.size(), ex);
+            throw ex;
+        } catch (Error ex) {
+            Exception error = new Exception("Error in execution the work item handler.", ex);
+            ProcessExecutionLog.failed(executor, metrics.failed(startTime), "batch: " + data.size(), error);
+            throw error;
+        }
+        ProcessExecutionLog.succeeded(executor, metrics.succeeded(startTime), data.size());
+        return result;
+    }
+
+    /**
+     * Submits the batch to the asynchronous execution.
+     *
+     * @param executor the batch executor.
+     * @param items the batch items.
+     * @param classLoader the project class loader.
+     */
+    private static void submit(final ProcessServiceExecutor executor, final List<BatchItem> items, ClassLoader classLoader) {
+        try {
+            AsyncExecutionService.submit(new AsyncExecutionTask() {
+
+                @Override
+                public void run() {
+                    executeItems(executor, items);
+                }
+
+                @Override
+                public void rejected(RejectedExecutionException ex) {
+                    LOGGER.log(Level.SEVERE, "Batch of the work item " + executor.getId() + " rejected", ex);
+                    for (BatchItem item : items) {
+                        failed(item, ex);
+                    }
+                }
+            }, classLoader, executor.getConcurrency());
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.SEVERE, "Batch of the work item " + executor.getId() + " rejected", ex);
+            for (BatchItem item : items) {
+                failed(item, ex);
+            }
+        }
+    }
+
+    /**
+     * Executes the batch and passes the results to the callbacks.
+     *
+     * @param executor the batch executor.
+     * @param items the batch items.
+     */
+    private static void executeItems(ProcessServiceExecutor executor, List<BatchItem> items) {
+        List<ExecutionData> data = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            data.add(item.data);
+        }
+
+        List<Map<String, Object>> result;
+        try {
+            result = execute(executor, data);
+        } catch (Exception ex) {
+            for (BatchItem item : items) {
+                failed(item, ex);
+            }
+            return;
+        } catch (Throwable ex) {
+            Exception error = new Exception("Error in execution the work item handler.", ex);
+            for (BatchItem item : items) {
+                failed(item, error);
+            }
+            return;
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                items.get(i).callback.completed(result.get(i));
+            } catch (Exception ex) {
+                LOGGER.log(Level.SEVERE, "Error by completion of the batch work item " + executor.getId(), ex);
+            }
+        }
+    }
+
+    /**
+     * Calls the failed callback of the batch item.
+     *
+     * @param item the batch item.
+     * @param exception the error.
+     */
+    private static void failed(BatchItem item, Exception exception) {
+        try {
+            item.callback.failed(exception);
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Error by failed callback of the batch work item", ex);
+        }
+    }
+
+    /**
+     * The batch item.
+     */
+    private static final class BatchItem {
+
+        /**
+         * The execution data.
+         */
+        private final ExecutionData data;
+
+        /**
+         * The execution callback.
+         */
+        private final ProcessExecutionCallback callback;
+
+        /**
+         * The default constructor.
+         *
+         * @param data the execution data.
+         * @param callback the execution callback.
+         */
+        BatchItem(ExecutionData data, ProcessExecutionCallback callback) {
+            this.data = data;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,918 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The completion journal of the asynchronous work items. The journal is the
+ * append only log in the memory mapped segment file. The dispatched, the
+ * completed and the acknowledged work items are recorded in the journal. The
+ * dispatched record contains the execution data of the work item, the
+ * deployment, the process, the work item name, the process instance and the
+ * serialized parameters. The completed record contains the serialized result
+ * and is forced to the disk before the work item is completed in the engine.
+ * The concurrent forces are grouped, one force of the segment makes all
+ * records written before it durable. The acknowledged record is written after the engine completed the
+ * work item.
+ * <p>
+ * When the segment is full the pending records of not acknowledged work items
+ * are copied to the new segment and the old segment is deleted. The journal
+ * is read on the start and the work items which were not acknowledged are
+ * returned as the recovered entries, so the work item handler can complete
+ * the completed work items again and execute the dispatched work items
+ * again. The execution and the completion are at least once.
+ *
+ * @author Andrej_Petras
+ */
+public final class CompletionJournal {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CompletionJournal.class.getName());
+
+    /**
+     * The journal directory system property. The journal is disabled if the
+     * property is not set.
+     */
+    public static final String PROPERTY_DIR = "org.lorislab.jbpm.workitem.journal.dir";
+
+    /**
+     * The segment size system property.
+     */
+    public static final String PROPERTY_SIZE = "org.lorislab.jbpm.workitem.journal.size";
+
+    /**
+     * The force system property. The records written to the memory mapped
+     * file survive the crash of the JVM also without the force, the force
+     * protects the records against the crash of the operating system.
+     */
+    public static final String PROPERTY_FORCE = "org.lorislab.jbpm.workitem.journal.force";
+
+    /**
+     * The default segment size.
+     */
+    private static final int DEFAULT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The segment file prefix.
+     */
+    private static final String PREFIX = "journal-";
+
+    /**
+     * The segment file suffix.
+     */
+    private static final String SUFFIX = ".log";
+
+    /**
+     * The segment header.
+     */
+    private static final int MAGIC = 0x4A574A31;
+
+    /**
+     * The record header size, the length and the checksum of the record body.
+     */
+    private static final int HEADER = 8;
+
+    /**
+     * The minimal record body size, the type, the session id and the work
+     * item id.
+     */
+    private static final int BODY = 17;
+
+    /**
+     * The dispatched record type.
+     */
+    private static final byte DISPATCHED = 1;
+
+    /**
+     * The completed record type.
+     */
+    private static final byte COMPLETED = 2;
+
+    /**
+     * The acknowledged record type.
+     */
+    private static final byte ACKNOWLEDGED = 3;
+
+    /**
+     * The default journal.
+     */
+    private static CompletionJournal instance;
+
+    /**
+     * The default journal initialization flag.
+     */
+    private static boolean initialized;
+
+    /**
+     * The journal directory.
+     */
+    private final File dir;
+
+    /**
+     * The segment size.
+     */
+    private final int segmentSize;
+
+    /**
+     * The force flag.
+     */
+    private final boolean force;
+
+    /**
+     * The append lock.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * The force lock.
+     */
+    private final Object forceLock = new Object();
+
+    /**
+     * The records of the not acknowledged work items by work item id.
+     */
+    private final Map<Long, byte[]> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The recovered entries by work item id.
+     */
+    private final Map<Long, Entry> recovered = new ConcurrentHashMap<>();
+
+    /**
+     * The logical position of the durable records.
+     */
+    private final AtomicLong durable = new AtomicLong();
+
+    /**
+     * The number of the written records.
+     */
+    private final LongAdder records = new LongAdder();
+
+    /**
+     * The number of the forces.
+     */
+    private final LongAdder forces = new LongAdder();
+
+    /**
+     * The logical position of the written records.
+     */
+    private long position;
+
+    /**
+     * The segment sequence.
+     */
+    private long sequence;
+
+    /**
+     * The segment file.
+     */
+    private File file;
+
+    /**
+     * The closed flag.
+     */
+    private boolean closed;
+
+    /**
+     * The segment buffer.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The default constructor.
+     *
+     * @param dir the journal directory.
+     * @param segmentSize the segment size.
+     * @param force the force flag.
+     */
+    private CompletionJournal(File dir, int segmentSize, boolean force) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.force = force;
+    }
+
+    /**
+     * Gets the default journal configured by the system properties.
+     *
+     * @return the default journal or <code>null</code> if the journal is
+     * disabled or could not be opened.
+     */
+    public static synchronized CompletionJournal getDefault() {
+        if (!initialized) {
+            initialized = true;
+            String value = System.getProperty(PROPERTY_DIR);
+            if (value != null && !value.isEmpty()) {
+                try {
+                    instance = open(new File(value), Integer.getInteger(PROPERTY_SIZE, DEFAULT_SIZE), Boolean.parseBoolean(System.getProperty(PROPERTY_FORCE, "true")));
+                } catch (IOException ex) {
+                    LOGGER.log(Level.SEVERE, "Error open the completion journal " + value, ex);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Opens the journal. The existing segments are read and replaced by the
+     * new segment with the records of the not acknowledged work items.
+     *
+     * @param dir the journal directory.
+     * @param segmentSize the segment size.
+     * @param force the force flag.
+     * @return the journal.
+     * @throws IOException if the journal could not be opened.
+     */
+    public static CompletionJournal open(File dir, int segmentSize, boolean force) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create the journal directory " + dir);
+        }
+        CompletionJournal result = new CompletionJournal(dir, segmentSize, force);
+        List<File> segments = result.findSegments();
+        for (File segment : segments) {
+            result.read(segment);
+        }
+        synchronized (result.appendLock) {
+            result.roll();
+        }
+        for (File segment : segments) {
+            if (!segment.delete()) {
+                LOGGER.log(Level.WARNING, "Could not delete the journal segment {0}", segment);
+            }
+        }
+        LOGGER.log(Level.INFO, "Completion journal opened [dir: {0}, segments: {1}, recovered: {2}]", new Object[]{dir, segments.size(), result.recovered.size()});
+        return result;
+    }
+
+    /**
+     * Records the dispatched work item with the execution data. The work item
+     * with the parameters which are not serializable is recorded without the
+     * execution data and is recovered only if it was completed.
+     *
+     * @param sessionId the session id.
+     * @param workItemId the work item id.
+     * @param deploymentId the deployment id.
+     * @param processId the process id.
+     * @param itemName the work item name.
+     * @param processInstanceId the process instance id.
+     * @param parameters the work item parameters.
+     * @throws IOException if the record could not be written.
+     */
+    public void dispatched(long sessionId, long workItemId, String deploymentId, String processId, String itemName, long processInstanceId, Map<String, Object> parameters) throws IOException {
+        byte[] payload = null;
+        try {
+            payload = serialize(deploymentId, processId, itemName, processInstanceId, parameters);
+        } catch (NotSerializableException ex) {
+            LOGGER.log(Level.WARNING, "The parameters of the work item {0} are not serializable, the work item is recorded without the execution data: {1}", new Object[]{workItemId, ex.getMessage()});
+        }
+        // the recovered work item is executed again
+        recovered.remove(workItemId);
+        append(record(DISPATCHED, sessionId, workItemId, payload), workItemId, DISPATCHED);
+    }
+
+    /**
+     * Records the completed work item. The method returns after the record
+     * is durable.
+     *
+     * @param sessionId the session id.
+     * @param workItemId the work item id.
+     * @param result the result of the work item.
+     * @throws IOException if the result could not be serialized or the record
+     * could not be written.
+     */
+    public void completed(long sessionId, long workItemId, Map<String, Object> result) throws IOException {
+        long end = append(record(COMPLETED, sessionId, workItemId, serialize(result)), workItemId, COMPLETED);
+        if (force) {
+            force(end);
+        }
+    }
+
+    /**
+     * Records the acknowledged work item. The work item is completed or
+     * aborted in the engine.
+     *
+     * @param workItemId the work item id.
+     * @throws IOException if the record could not be written.
+     */
+    public void acknowledged(long workItemId) throws IOException {
+        recovered.remove(workItemId);
+        append(record(ACKNOWLEDGED, 0, workItemId, null), workItemId, ACKNOWLEDGED);
+    }
+
+    /**
+     * Gets the recovered entries of the session. The entries are the work
+     * items which were not acknowledged before the journal was opened.
+     *
+     * @param sessionId the session id.
+     * @return the list of the recovered entries.
+     */
+    public List<Entry> getRecovered(long sessionId) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : recovered.values()) {
+            if (entry.sessionId == sessionId) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of the not acknowledged work items.
+     *
+     * @return the number of the not acknowledged work items.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of the written records.
+     *
+     * @return the number of the written records.
+     */
+    public long getRecordCount() {
+        return records.sum();
+    }
+
+    /**
+     * Gets the number of the forces.
+     *
+     * @return the number of the forces.
+     */
+    public long getForceCount() {
+        return forces.sum();
+    }
+
+    /**
+     * Closes the journal. The written records are forced to the disk.
+     */
+    public void close() {
+        synchronized (appendLock) {
+            if (!closed) {
+                closed = true;
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Appends the record to the segment.
+     *
+     * @param record the record.
+     * @param workItemId the work item id.
+     * @param type the record type.
+     * @return the logical position after the record.
+     * @throws IOException if the record could not be written.
+     */
+    private long append(byte[] record, long workItemId, byte type) throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IOException("The completion journal " + dir + " is closed");
+            }
+            if (buffer.remaining() < record.length + HEADER) {
+                roll();
+                if (buffer.remaining() < record.length + HEADER) {
+                    throw new IOException("The journal record of the work item " + workItemId + " is larger than the segment");
+                }
+            }
+            if (type == ACKNOWLEDGED) {
+                pending.remove(workItemId);
+            } else {
+                pending.put(workItemId, record);
+            }
+            buffer.put(record);
+            position += record.length;
+            records.increment();
+            return position;
+        }
+    }
+
+    /**
+     * Forces the records to the disk. The thread which enters the force lock
+     * forces all written records, the waiting threads which records were
+     * forced by the previous force return without the force.
+     *
+     * @param end the logical position after the record.
+     */
+    private void force(long end) {
+        synchronized (forceLock) {
+            if (durable.get() >= end) {
+                return;
+            }
+            MappedByteBuffer tmp;
+            long target;
+            synchronized (appendLock) {
+                tmp = buffer;
+                target = position;
+            }
+            tmp.force();
+            forces.increment();
+            setDurable(target);
+        }
+    }
+
+    /**
+     * Sets the logical position of the durable records.
+     *
+     * @param value the logical position.
+     */
+    private void setDurable(long value) {
+        for (;;) {
+            long old = durable.get();
+            if (old >= value || durable.compareAndSet(old, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the new segment with the records of the not acknowledged work
+     * items and deletes the current segment. The mapped buffer stays valid
+     * after the file is closed. The method must be called with the append
+     * lock.
+     *
+     * @throws IOException if the segment could not be created.
+     */
+    private void roll() throws IOException {
+        List<byte[]> tmp = new ArrayList<>(pending.values());
+        long size = 4;
+        for (byte[] record : tmp) {
+            size += record.length;
+        }
+        size = Math.max(segmentSize, size * 2 + HEADER);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The pending journal records do not fit to the segment");
+        }
+
+        sequence++;
+        File next = new File(dir, String.format("%s%016d%s", PREFIX, sequence, SUFFIX));
+        MappedByteBuffer nextBuffer;
+        try (RandomAccessFile raf = new RandomAccessFile(next, "rw")) {
+            raf.setLength(size);
+            nextBuffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        nextBuffer.putInt(MAGIC);
+        for (byte[] record : tmp) {
+            nextBuffer.put(record);
+            position += record.length;
+        }
+        nextBuffer.force();
+
+        File old = file;
+        file = next;
+        buffer = nextBuffer;
+        setDurable(position);
+        if (old != null && !old.delete()) {
+            LOGGER.log(Level.WARNING, "Could not delete the journal segment {0}", old);
+        }
+    }
+
+    /**
+     * Finds the existing segments ordered by the sequence.
+     *
+     * @return the list of the segments.
+     */
+    private List<File> findSegments() {
+        List<File> result = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File tmp : files) {
+                String name = tmp.getName();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        sequence = Math.max(sequence, Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                        result.add(tmp);
+                    } catch (NumberFormatException ex) {
+                        LOGGER.log(Level.WARNING, "Not valid journal segment name {0}", tmp);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the records of the segment. The reading stops at the end of the
+     * written records or at the first damaged record.
+     *
+     * @param segment the segment file.
+     * @throws IOException if the segment could not be read.
+     */
+    private void read(File segment) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "r")) {
+            ByteBuffer data = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (data.remaining() < 4 || data.getInt() != MAGIC) {
+                LOGGER.log(Level.WARNING, "Not valid journal segment {0}", segment);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            while (data.remaining() >= HEADER) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length < BODY || length > data.remaining()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                data.get(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    LOGGER.log(Level.WARNING, "Damaged journal record in the segment {0} at the position {1}", new Object[]{segment, data.position() - length - HEADER});
+                    break;
+                }
+                ByteBuffer tmp = ByteBuffer.wrap(body);
+                byte type = tmp.get();
+                long sessionId = tmp.getLong();
+                long workItemId = tmp.getLong();
+                if (type == ACKNOWLEDGED) {
+                    pending.remove(workItemId);
+                    recovered.remove(workItemId);
+                } else {
+                    byte[] record = new byte[length + HEADER];
+                    ByteBuffer.wrap(record).putInt(length).putInt(checksum).put(body);
+                    pending.put(workItemId, record);
+                    byte[] payload = null;
+                    if (length > BODY) {
+                        payload = Arrays.copyOfRange(body, BODY, length);
+                    }
+                    recovered.put(workItemId, new Entry(sessionId, workItemId, type == COMPLETED, payload));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the record.
+     *
+     * @param type the record type.
+     * @param sessionId the session id.
+     * @param workItemId the work item id.
+     * @param payload the payload or <code>null</code>.
+     * @return the record.
+     */
+    private static byte[] record(byte type, long sessionId, long workItemId, byte[] payload) {
+        int length = BODY + (payload == null ? 0 : payload.length);
+        byte[] result = new byte[length + HEADER];
+        ByteBuffer tmp = ByteBuffer.wrap(result);
+        tmp.position(HEADER);
+        tmp.put(type).putLong(sessionId).putLong(workItemId);
+        if (payload != null) {
+            tmp.put(payload);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(result, HEADER, length);
+        tmp.putInt(0, length).putInt(4, (int) crc.getValue());
+        return result;
+    }
+
+    /**
+     * Serializes the result of the work item.
+     *
+     * @param result the result.
+     * @return the serialized result.
+     * @throws IOException if the result is not serializable.
+     */
+    private static byte[] serialize(Map<String, Object> result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(result == null ? null : new LinkedHashMap<>(result));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serializes the execution data of the dispatched work item. The
+     * identifiers are written as the data fields followed by the serialized
+     * parameters.
+     *
+     * @param deploymentId the deployment id.
+     * @param processId the process id.
+     * @param itemName the work item name.
+     * @param processInstanceId the process instance id.
+     * @param parameters the work item parameters.
+     * @return the serialized execution data.
+     * @throws IOException if the parameters are not serializable.
+     */
+    private static byte[] serialize(String deploymentId, String processId, String itemName, long processInstanceId, Map<String, Object> parameters) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        DataOutputStream data = new DataOutputStream(out);
+        writeString(data, deploymentId);
+        writeString(data, processId);
+        writeString(data, itemName);
+        data.writeLong(processInstanceId);
+        data.flush();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(parameters == null ? null : new LinkedHashMap<>(parameters));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the nullable string.
+     *
+     * @param data the output.
+     * @param value the value or <code>null</code>.
+     * @throws IOException if the value could not be written.
+     */
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads the nullable string.
+     *
+     * @param data the input.
+     * @return the value or <code>null</code>.
+     * @throws IOException if the value could not be read.
+     */
+    private static String readString(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+
+    /**
+     * Deserializes the map with the project class loader.
+     *
+     * @param input the input.
+     * @param classLoader the project class loader.
+     * @return the map or <code>null</code>.
+     * @throws IOException if the map could not be read.
+     * @throws ClassNotFoundException if the value class is not found.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(InputStream input, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ClassLoaderObjectInputStream(input, classLoader)) {
+            Map<String, Object> tmp = (Map<String, Object>) ois.readObject();
+            return tmp == null ? null : new HashMap<>(tmp);
+        }
+    }
+
+    /**
+     * The recovered journal entry.
+     */
+    public static final class Entry {
+
+        /**
+         * The session id.
+         */
+        private final long sessionId;
+
+        /**
+         * The work item id.
+         */
+        private final long workItemId;
+
+        /**
+         * The completed flag.
+         */
+        private final boolean completed;
+
+        /**
+         * The serialized result of the completed work item, the serialized
+         * execution data of the dispatched work item or <code>null</code>.
+         */
+        private final byte[] payload;
+
+        /**
+         * The deployment id.
+         */
+        private String deploymentId;
+
+        /**
+         * The process id.
+         */
+        private String processId;
+
+        /**
+         * The work item name.
+         */
+        private String itemName;
+
+        /**
+         * The process instance id.
+         */
+        private long processInstanceId;
+
+        /**
+         * The offset of the serialized parameters in the payload.
+         */
+        private int parametersOffset = -1;
+
+        /**
+         * The default constructor.
+         *
+         * @param sessionId the session id.
+         * @param workItemId the work item id.
+         * @param completed the completed flag.
+         * @param payload the serialized result or execution data or
+         * <code>null</code>.
+         */
+        Entry(long sessionId, long workItemId, boolean completed, byte[] payload) {
+            this.sessionId = sessionId;
+            this.workItemId = workItemId;
+            this.completed = completed;
+            this.payload = payload;
+            if (!completed && payload != null) {
+                ByteArrayInputStream in = new ByteArrayInputStream(payload);
+                DataInputStream data = new DataInputStream(in);
+                try {
+                    deploymentId = readString(data);
+                    processId = readString(data);
+                    itemName = readString(data);
+                    processInstanceId = data.readLong();
+                    parametersOffset = payload.length - in.available();
+                } catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Not valid execution data of the dispatched work item " + workItemId, ex);
+                }
+            }
+        }
+
+        /**
+         * Gets the session id.
+         *
+         * @return the session id.
+         */
+        public long getSessionId() {
+            return sessionId;
+        }
+
+        /**
+         * Gets the work item id.
+         *
+         * @return the work item id.
+         */
+        public long getWorkItemId() {
+            return workItemId;
+        }
+
+        /**
+         * Returns <code>true</code> if the work item was completed. The not
+         * completed work item was dispatched but the result was not recorded.
+         *
+         * @return <code>true</code> if the work item was completed.
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Returns <code>true</code> if the dispatched work item was recorded
+         * with the execution data and can be executed again.
+         *
+         * @return <code>true</code> if the work item can be executed again.
+         */
+        public boolean isExecutable() {
+            return parametersOffset >= 0;
+        }
+
+        /**
+         * Gets the deployment id of the dispatched work item.
+         *
+         * @return the deployment id.
+         */
+        public String getDeploymentId() {
+            return deploymentId;
+        }
+
+        /**
+         * Gets the process id of the dispatched work item.
+         *
+         * @return the process id.
+         */
+        public String getProcessId() {
+            return processId;
+        }
+
+        /**
+         * Gets the work item name of the dispatched work item.
+         *
+         * @return the work item name.
+         */
+        public String getItemName() {
+            return itemName;
+        }
+
+        /**
+         * Gets the process instance id of the dispatched work item.
+         *
+         * @return the process instance id.
+         */
+        public long getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        /**
+         * Gets the parameters of the dispatched work item.
+         *
+         * @param classLoader the project class loader.
+         * @return the parameters of the work item or <code>null</code> if the
+         * work item was not recorded with the execution data.
+         * @throws IOException if the parameters could not be read.
+         * @throws ClassNotFoundException if the parameter class is not found.
+         */
+        public Map<String, Object> getParameters(ClassLoader classLoader) throws IOException, ClassNotFoundException {
+            if (parametersOffset < 0) {
+                return null;
+            }
+            return deserialize(new ByteArrayInputStream(payload, parametersOffset, payload.length - parametersOffset), classLoader);
+        }
+
+        /**
+         * Gets the result of the completed work item.
+         *
+         * @param classLoader the project class loader.
+         * @return the result of the work item.
+         * @throws IOException if the result could not be read.
+         * @throws ClassNotFoundException if the result class is not found.
+         */
+        public Map<String, Object> getResult(ClassLoader classLoader) throws IOException, ClassNotFoundException {
+            if (!completed || payload == null) {
+                return null;
+            }
+            return deserialize(new ByteArrayInputStream(payload), classLoader);
+        }
+    }
+
+    /**
+     * The object input stream which resolves the classes with the project
+     * class loader.
+     */
+    private static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        /**
+         * The class loader.
+         */
+        private final ClassLoader classLoader;
+
+        /**
+         * The default constructor.
+         *
+         * @param input the input stream.
+         * @param classLoader the class loader.
+         * @throws IOException if the stream header could not be read.
+         */
+        ClassLoaderObjectInputStream(InputStream input, ClassLoader classLoader) throws IOException {
+            super(input);
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException ex) {
+                    // fall back to the default class resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The execution timeout. The timeout interrupts the executing thread when the
+ * work item method does not finish in time. The state of the timeout makes
+ * sure the thread is not interrupted after the execution finished.
+ *
+ * @author Andrej_Petras
+ */
+final class ExecutionTimeout implements Runnable {
+
+    /**
+     * The running state.
+     */
+    private static final int RUNNING = 0;
+
+    /**
+     * The finished state.
+     */
+    private static final int FINISHED = 1;
+
+    /**
+     * The timed out state.
+     */
+    private static final int TIMED_OUT = 2;
+
+    /**
+     * The interrupted state.
+     */
+    private static final int INTERRUPTED = 3;
+
+    /**
+     * The executing thread.
+     */
+    private final Thread thread;
+
+    /**
+     * The state.
+     */
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    /**
+     * The timer timeout.
+     */
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    /**
+     * The default constructor.
+     *
+     * @param thread the executing thread.
+     */
+    private ExecutionTimeout(Thread thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * Starts the timeout for the current thread.
+     *
+     * @param timeout the timeout in milliseconds.
+     * @return the execution timeout or <code>null</code> if the timeout is
+     * <code>0</code>.
+     */
+    static ExecutionTimeout start(long timeout) {
+        if (timeout <= 0) {
+            return null;
+        }
+        ExecutionTimeout result = new ExecutionTimeout(Thread.currentThread());
+        result.timeout = HashedWheelTimer.getDefault().schedule(result, timeout, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void run() {
+        if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+            thread.interrupt();
+            state.set(INTERRUPTED);
+        }
+    }
+
+    /**
+     * Finishes the execution. The method has to be called by the executing
+     * thread once. The interrupt status set by the timeout is cleared.
+     *
+     * @return <code>true</code> if the execution timed out.
+     */
+    boolean finish() {
+        if (state.compareAndSet(RUNNING, FINISHED)) {
+            timeout.cancel();
+            return false;
+        }
+        while (state.get() != INTERRUPTED) {
+            Thread.yield();
+        }
+        Thread.interrupted();
+        return true;
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The hashed wheel timer. The timeouts are stored in the wheel of buckets and
+ * one worker thread moves over the buckets every tick, so the scheduling and
+ * the cancellation of the timeout are cheap and no thread per timeout is
+ * needed. The timer precision is the tick duration which is set by the system
+ * property <code>org.lorislab.jbpm.workitem.timer.tick</code> in milliseconds.
+ * The timer tasks are executed in the worker thread and should be short.
+ *
+ * @author Andrej_Petras
+ */
+public final class HashedWheelTimer {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(HashedWheelTimer.class.getName());
+
+    /**
+     * The tick duration system property.
+     */
+    public static final String PROPERTY_TICK = "org.lorislab.jbpm.workitem.timer.tick";
+
+    /**
+     * The default tick duration in milliseconds.
+     */
+    private static final long DEFAULT_TICK = 10;
+
+    /**
+     * The number of buckets in the wheel.
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * The shared timer.
+     */
+    private static volatile HashedWheelTimer DEFAULT;
+
+    /**
+     * The tick duration in nanoseconds.
+     */
+    private final long tick;
+
+    /**
+     * The wheel buckets.
+     */
+    private final Bucket[] wheel;
+
+    /**
+     * The new timeouts.
+     */
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The cancelled timeouts.
+     */
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The start time in nanoseconds.
+     */
+    private final long startTime;
+
+    /**
+     * The worker thread.
+     */
+    private final Thread worker;
+
+    /**
+     * The running flag.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The default constructor.
+     *
+     * @param name the worker thread name.
+     * @param tick the tick duration in milliseconds.
+     */
+    public HashedWheelTimer(String name, long tick) {
+        this.tick = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tick));
+        this.wheel = new Bucket[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                work();
+            }
+        }, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Gets the shared timer.
+     *
+     * @return the shared timer.
+     */
+    public static HashedWheelTimer getDefault() {
+        HashedWheelTimer result = DEFAULT;
+        if (result == null) {
+            synchronized (HashedWheelTimer.class) {
+                result = DEFAULT;
+                if (result == null) {
+                    result = new HashedWheelTimer("jbpm-workitem-timer", Long.getLong(PROPERTY_TICK, DEFAULT_TICK));
+                    DEFAULT = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Schedules the task after the delay.
+     *
+     * @param task the task.
+     * @param delay the delay.
+     * @param unit the delay unit.
+     * @return the timeout.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout result = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+        pending.add(result);
+        return result;
+    }
+
+    /**
+     * Stops the timer. The not expired timeouts are not executed.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * The worker loop.
+     */
+    private void work() {
+        long ticks = 0;
+        while (running) {
+            long deadline = waitForNextTick(ticks);
+            if (deadline < 0) {
+                continue;
+            }
+            removeCancelled();
+            transferPending(ticks);
+            wheel[(int) (ticks & (WHEEL_SIZE - 1))].expire(deadline);
+            ticks++;
+        }
+    }
+
+    /**
+     * Waits for the next tick.
+     *
+     * @param ticks the number of the processed ticks.
+     * @return the time of the tick relative to the start time or
+     * <code>-1</code> if the timer is stopped.
+     */
+    private long waitForNextTick(long ticks) {
+        long deadline = tick * (ticks + 1);
+        for (;;) {
+            long current = System.nanoTime() - startTime;
+            long sleep = deadline - current;
+            if (sleep <= 0) {
+                return current;
+            }
+            LockSupport.parkNanos(this, sleep);
+            if (!running) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Removes the cancelled timeouts from the buckets.
+     */
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Moves the new timeouts to the buckets.
+     *
+     * @param ticks the number of the processed ticks.
+     */
+    private void transferPending(long ticks) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != Timeout.INIT) {
+                continue;
+            }
+            long calculated = timeout.deadline / tick;
+            timeout.rounds = (calculated - ticks) / WHEEL_SIZE;
+            long index = Math.max(calculated, ticks);
+            wheel[(int) (index & (WHEEL_SIZE - 1))].add(timeout);
+        }
+    }
+
+    /**
+     * The timeout of the scheduled task.
+     */
+    public static final class Timeout {
+
+        /**
+         * The initial state.
+         */
+        private static final int INIT = 0;
+
+        /**
+         * The cancelled state.
+         */
+        private static final int CANCELLED = 1;
+
+        /**
+         * The expired state.
+         */
+        private static final int EXPIRED = 2;
+
+        /**
+         * The timer.
+         */
+        private final HashedWheelTimer timer;
+
+        /**
+         * The task.
+         */
+        private final Runnable task;
+
+        /**
+         * The deadline relative to the timer start time in nanoseconds.
+         */
+        private final long deadline;
+
+        /**
+         * The state.
+         */
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        /**
+         * The remaining rounds of the wheel.
+         */
+        private long rounds;
+
+        /**
+         * The bucket of the timeout.
+         */
+        private Bucket bucket;
+
+        /**
+         * The next timeout in the bucket.
+         */
+        private Timeout next;
+
+        /**
+         * The previous timeout in the bucket.
+         */
+        private Timeout prev;
+
+        /**
+         * The default constructor.
+         *
+         * @param timer the timer.
+         * @param task the task.
+         * @param deadline the deadline relative to the timer start time.
+         */
+        Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return <code>true</code> if the timeout was cancelled before the
+         * task was executed.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * Returns <code>true</code> if the timeout is cancelled.
+         *
+         * @return <code>true</code> if the timeout is cancelled.
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Returns <code>true</code> if the timeout is expired.
+         *
+         * @return <code>true</code> if the timeout is expired.
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Expires the timeout and executes the task.
+         */
+        private void expire() {
+            if (!state.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                LOGGER.log(Level.WARNING, "Error executing the timer task", ex);
+            }
+        }
+    }
+
+    /**
+     * The bucket of the wheel. The bucket is the linked list of the timeouts
+     * and is used only by the worker thread.
+     */
+    private static final class Bucket {
+
+        /**
+         * The first timeout.
+         */
+        private Timeout head;
+
+        /**
+         * The last timeout.
+         */
+        private Timeout tail;
+
+        /**
+         * Adds the timeout to the bucket.
+         *
+         * @param timeout the timeout.
+         */
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * Removes the timeout from the bucket.
+         *
+         * @param timeout the timeout.
+         * @return the next timeout.
+         */
+        Timeout remove(Timeout timeout) {
+            Timeout result = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = result;
+            }
+            if (result != null) {
+                result.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = result;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return result;
+        }
+
+        /**
+         * Expires the timeouts of the current round.
+         *
+         * @param deadline the time of the tick relative to the timer start
+         * time.
+         */
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else if (timeout.rounds <= 0 && timeout.deadline <= deadline) {
+                    Timeout next = remove(timeout);
+                    timeout.expire();
+                    timeout = next;
+                } else {
+                    if (timeout.rounds > 0) {
+                        timeout.rounds--;
+                    }
+                    timeout = timeout.next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The execution backend for the asynchronous work items. The implementations
+ * are loaded by the {@link java.util.ServiceLoader}.
+ *
+ * @author Andrej_Petras
+ */
+public interface ProcessExecutionBackend {
+
+    /**
+     * Gets the backend name.
+     *
+     * @return the backend name.
+     */
+    public String getName();
+
+    /**
+     * Returns <code>true</code> if the backend is supported by the running
+     * JVM.
+     *
+     * @return <code>true</code> if the backend is supported.
+     */
+    public boolean isAvailable();
+
+    /**
+     * Executes the task.
+     *
+     * @param task the task.
+     * @throws RejectedExecutionException if the task is rejected.
+     */
+    public void execute(Runnable task) throws RejectedExecutionException;
+
+    /**
+     * Gets the number of waiting tasks.
+     *
+     * @return the number of waiting tasks.
+     */
+    public int getQueueDepth();
+
+    /**
+     * Gets the capacity of the waiting tasks. The pending queues of the work
+     * items with the maximum concurrency are bounded by the capacity.
+     *
+     * @return the capacity of the waiting tasks or
+     * {@link Integer#MAX_VALUE} for the backend without the bounded queue.
+     */
+    public int getQueueCapacity();
+
+    /**
+     * Shutdowns the backend.
+     */
+    public void shutdown();
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.Map;
+
+/**
+ * The process execution callback. The callback is called when the work item
+ * method finished.
+ *
+ * @author Andrej_Petras
+ */
+public interface ProcessExecutionCallback {
+
+    /**
+     * The work item method is dispatched for the execution out of the caller
+     * thread. The method is called in the caller thread before the execution
+     * is submitted and the callback is completed or failed later from the
+     * backend thread. The callback which cannot be completed out of the
+     * caller thread rejects the dispatch with the runtime exception.
+     */
+    public void dispatched();
+
+    /**
+     * The work item method finished successfully.
+     *
+     * @param result the result of the method.
+     */
+    public void completed(Map<String, Object> result);
+
+    /**
+     * The asynchronous work item method failed.
+     *
+     * @param exception the error.
+     */
+    public void failed(Exception exception);
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+
+/**
+ * The process execution log. The log policy is configured by the system
+ * properties:
+ * <ul>
+ * <li><code>org.lorislab.jbpm.workitem.log</code> the log mode
+ * <code>all</code>, <code>slow</code>, <code>sampled</code> or
+ * <code>none</code> (default <code>all</code>)</li>
+ * <li><code>org.lorislab.jbpm.workitem.log.slow</code> the slow call threshold
+ * in milliseconds (default 1000)</li>
+ * <li><code>org.lorislab.jbpm.workitem.log.sample</code> the sample rate, one
+ * of <code>n</code> calls is logged (default 100)</li>
+ * </ul>
+ * The policy applies to the successful calls. The failed call is always logged
+ * once with the stack trace.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessExecutionLog {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessExecutionLog.class.getName());
+
+    /**
+     * The log mode system property.
+     */
+    public static final String PROPERTY_MODE = "org.lorislab.jbpm.workitem.log";
+
+    /**
+     * The slow call threshold system property.
+     */
+    public static final String PROPERTY_SLOW = "org.lorislab.jbpm.workitem.log.slow";
+
+    /**
+     * The sample rate system property.
+     */
+    public static final String PROPERTY_SAMPLE = "org.lorislab.jbpm.workitem.log.sample";
+
+    /**
+     * The time constant.
+     */
+    private static final double TIME_CONST = 1000000000d;
+
+    /**
+     * The log mode.
+     */
+    public enum Mode {
+
+        /**
+         * Log all calls.
+         */
+        ALL,
+
+        /**
+         * Log the calls slower than the threshold.
+         */
+        SLOW,
+
+        /**
+         * Log the sample of the calls.
+         */
+        SAMPLED,
+
+        /**
+         * Log only the failed calls.
+         */
+        NONE;
+    }
+
+    /**
+     * The log mode.
+     */
+    private static final Mode MODE = mode();
+
+    /**
+     * The slow call threshold in nanoseconds.
+     */
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(Long.getLong(PROPERTY_SLOW, 1000L));
+
+    /**
+     * The sample rate.
+     */
+    private static final int SAMPLE = Math.max(1, Integer.getInteger(PROPERTY_SAMPLE, 100));
+
+    /**
+     * The default constructor.
+     */
+    private ProcessExecutionLog() {
+        // empty constructor
+    }
+
+    /**
+     * Logs the start of the call.
+     *
+     * @param executor the executor.
+     */
+    public static void started(ProcessServiceExecutor executor) {
+        Logger logger = executor.getLogger();
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "{0} started.", executor.getMethod().getName());
+        }
+    }
+
+    /**
+     * Logs the successful call.
+     *
+     * @param executor the executor.
+     * @param duration the duration in nanoseconds.
+     */
+    public static void succeeded(ProcessServiceExecutor executor, long duration) {
+        Logger logger = executor.getLogger();
+        if (isLogged(duration) && logger.isLoggable(Level.INFO)) {
+            logger.log(Level.INFO, "{0} [{1}s] succeed.", new Object[]{executor.getMethod().getName(), duration / TIME_CONST});
+        }
+    }
+
+    /**
+     * Logs the successful batch call.
+     *
+     * @param executor the executor.
+     * @param duration the duration in nanoseconds.
+     * @param size the batch size.
+     */
+    public static void succeeded(ProcessServiceExecutor executor, long duration, int size) {
+        Logger logger = executor.getLogger();
+        if (isLogged(duration) && logger.isLoggable(Level.INFO)) {
+            logger.log(Level.INFO, "{0} batch [{1}] [{2}s] succeed.", new Object[]{executor.getMethod().getName(), size, duration / TIME_CONST});
+        }
+    }
+
+    /**
+     * Logs the failed call.
+     *
+     * @param executor the executor.
+     * @param duration the duration in nanoseconds.
+     * @param processInstanceId the process instance id.
+     * @param exception the error.
+     */
+    public static void failed(ProcessServiceExecutor executor, long duration, long processInstanceId, Throwable exception) {
+        failed(executor, duration, "processInstanceId: " + processInstanceId, exception);
+    }
+
+    /**
+     * Logs the failed call.
+     *
+     * @param executor the executor.
+     * @param duration the duration in nanoseconds.
+     * @param detail the call detail.
+     * @param exception the error.
+     */
+    public static void failed(ProcessServiceExecutor executor, long duration, String detail, Throwable exception) {
+        Logger logger = executor.getLogger();
+        if (logger.isLoggable(Level.SEVERE)) {
+            logger.log(Level.SEVERE, "Work item " + executor.getId() + " failed [method: " + executor.getMethod().getName()
+                    + ", " + detail + ", time: " + (duration / TIME_CONST) + "s]", exception);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the successful call is logged by the
+     * policy.
+     *
+     * @param duration the duration in nanoseconds.
+     * @return <code>true</code> if the call is logged.
+     */
+    private static boolean isLogged(long duration) {
+        switch (MODE) {
+            case ALL:
+                return true;
+            case SLOW:
+                return duration >= SLOW;
+            case SAMPLED:
+                return ThreadLocalRandom.current().nextInt(SAMPLE) == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Gets the log mode from the system property.
+     *
+     * @return the log mode.
+     */
+    private static Mode mode() {
+        String value = System.getProperty(PROPERTY_MODE);
+        if (value != null) {
+            try {
+                return Mode.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.WARNING, "Not supported log mode {0}", value);
+            }
+        }
+        return Mode.ALL;
+    }
+}
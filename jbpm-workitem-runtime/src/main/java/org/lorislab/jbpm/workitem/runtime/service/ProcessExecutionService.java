@@ -15,15 +15,24 @@
  */
 package org.lorislab.jbpm.workitem.runtime.service;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.lorislab.jbpm.workitem.api.model.ExecutionData;
 import org.lorislab.jbpm.workitem.runtime.model.ExecutionDataImpl;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCache;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCircuit;
 import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceLimit;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceMetrics;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRate;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRetry;
 import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+import org.lorislab.jbpm.workitem.runtime.provider.ProcessServiceProvider;
 
 /**
  *
@@ -36,22 +45,10 @@ public class ProcessExecutionService {
      */
     private static final Logger LOGGER = Logger.getLogger(ProcessExecutionService.class.getName());
 
-    /**
-     * The process service registry.
-     */
-    private static ProcessServiceRegistry REGISTER = null;
-    
-    /**
-     * The time constant.
-     */
-    private static final double TIME_CONST = 1000000000d;
-    
     public static Map<String, Object> execute(ClassLoader classLoader, String deploymentId, String processId, Map<String, Object> parameters, String itemName, long processInstanceId) throws Exception {
         Map<String, Object> result = null;        
-        if (REGISTER == null) {
-            loadRegister(classLoader);
-        }
-        ProcessServiceExecutor executor = REGISTER.getExecute(processId, itemName);
+        ProcessServiceRegistry registry = ProcessServiceRegistryManager.getRegistry(deploymentId, classLoader);
+        ProcessServiceExecutor executor = registry.getExecute(processId, itemName);
         if (executor != null) {            
             result = execute(executor, deploymentId, processId, parameters, itemName, processInstanceId);
         } else {
@@ -60,11 +57,94 @@ public class ProcessExecutionService {
         return result;
     }
     
+    /**
+     * Executes the work item method. The synchronous method is executed in the
+     * caller thread and the callback is called before this method returns. The
+     * asynchronous method is submitted to the {@link AsyncExecutionService}, the
+     * batch method is collected by the {@link BatchExecutionService}, and
+     * the callback is called from the backend thread with the project class
+     * loader as the context class loader. The synchronous execution over the
+     * rate limit fails with the {@link RateLimitExceededException} and the
+     * asynchronous execution is submitted after the rate limit delay. The
+     * cached result completes the work item in the caller thread without the
+     * rate limit. The
+     * failed execution with the retry policy is retried in the backend thread
+     * after the retry delay, so the synchronous work item becomes
+     * asynchronous after the first failed attempt. The callback is notified
+     * with {@link ProcessExecutionCallback#dispatched()} before the execution
+     * leaves the caller thread.
+     *
+     * @param classLoader the project class loader.
+     * @param deploymentId the deployment id.
+     * @param processId the process id.
+     * @param parameters the work item parameters.
+     * @param itemName the work item name.
+     * @param processInstanceId the process instance id.
+     * @param callback the execution callback.
+     * @return <code>true</code> if the work item method was submitted for the
+     * asynchronous execution.
+     * @throws Exception if the synchronous execution fails or the asynchronous
+     * execution is rejected.
+     */
+    public static boolean execute(final ClassLoader classLoader, final String deploymentId, final String processId, final Map<String, Object> parameters, final String itemName, final long processInstanceId, final ProcessExecutionCallback callback) throws Exception {
+        ProcessServiceRegistry registry = ProcessServiceRegistryManager.getRegistry(deploymentId, classLoader);
+        final ProcessServiceExecutor executor = registry.getExecute(processId, itemName);
+        if (executor == null) {
+            LOGGER.log(Level.WARNING, "Not supported execute method for {0}/{1}", new Object[]{processId, itemName});
+            callback.completed(null);
+            return false;
+        }
+
+        if (executor.getBatch() != null) {
+            callback.dispatched();
+            BatchExecutionService.add(executor, new ExecutionDataImpl(deploymentId, parameters, itemName, processInstanceId), callback, classLoader);
+            return true;
+        }
+
+        if (!executor.isAsync()) {
+            Map<String, Object> result;
+            try {
+                result = execute(executor, deploymentId, processId, parameters, itemName, processInstanceId);
+            } catch (Exception ex) {
+                ProcessServiceRetry retry = executor.getRetry();
+                if (retry == null || !retry.isRetryable(ex, 1)) {
+                    throw ex;
+                }
+                callback.dispatched();
+                ExecutionTask task = new ExecutionTask(classLoader, executor, deploymentId, processId, parameters, itemName, processInstanceId, callback);
+                task.retry(ex);
+                return true;
+            }
+            callback.completed(result);
+            return false;
+        }
+
+        // cached result before the rate limit delay
+        ProcessServiceCache cache = executor.getCache();
+        if (cache != null) {
+            Map<String, Object> cached = cache.get(cache.createKey(parameters));
+            if (cached != null) {
+                callback.completed(ProcessServiceCache.isNullResult(cached) ? null : cached);
+                return false;
+            }
+        }
+
+        // rate limit delay
+        ProcessServiceRate rate = executor.getRate();
+        long delay = rate == null ? 0 : rate.reserve();
+        callback.dispatched();
+        ExecutionTask task = new ExecutionTask(classLoader, executor, deploymentId, processId, parameters, itemName, processInstanceId, callback);
+        if (delay <= 0) {
+            AsyncExecutionService.submit(task, classLoader, executor.getConcurrency());
+        } else {
+            task.schedule(delay);
+        }
+        return true;
+    }
+
     public static void abort(ClassLoader classLoader, String deploymentId, String processId, Map<String, Object> parameters, String itemName, long processInstanceId) throws Exception {       
-        if (REGISTER == null) {
-            loadRegister(classLoader);
-        }        
-        ProcessServiceExecutor executor = REGISTER.getAbort(processId, itemName);        
+        ProcessServiceRegistry registry = ProcessServiceRegistryManager.getRegistry(deploymentId, classLoader);
+        ProcessServiceExecutor executor = registry.getAbort(processId, itemName);        
         if (executor != null) {                                    
             execute(executor, deploymentId, processId, parameters, itemName, processInstanceId);
         } else {
@@ -74,79 +154,344 @@ public class ProcessExecutionService {
     
 
     /**
-     * Executes the service method with execution data.
+     * Executes the service method with execution data in the caller thread.
+     * The execution over the rate limit is rejected, the cached result does
+     * not take the token of the rate limit.
      *
-     * @param data the execution data.
      * @return the result.
      * @throws java.lang.Exception if the execution fails.
      */
     private static Map<String, Object> execute(final ProcessServiceExecutor executor, String deploymentId, String processId, Map<String, Object> parameters, String itemName, long processInstanceId) throws Exception {
-        final long startTime = System.nanoTime();
-        final Object service = executor.getService();
-        final Method method = executor.getMethod();
-                
-        // log method
-        Logger logger = Logger.getLogger(service.getClass().getName());
-        logger.info(method.getName());
-        
+        return invoke(executor, executor.getRate(), true, deploymentId, processId, parameters, itemName, processInstanceId);
+    }
+
+    /**
+     * Takes the token of the rate limit without waiting.
+     *
+     * @param executor the executor.
+     * @param rate the rate limit or <code>null</code>.
+     * @throws RateLimitExceededException if the rate limit is exceeded.
+     */
+    private static void acquire(ProcessServiceExecutor executor, ProcessServiceRate rate) throws RateLimitExceededException {
+        if (rate != null) {
+            long wait = rate.tryAcquire();
+            if (wait > 0) {
+                throw new RateLimitExceededException(executor.getId(), TimeUnit.NANOSECONDS.toMillis(wait + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+            }
+        }
+    }
+
+    /**
+     * Executes the service method with execution data. The execution with
+     * the open circuit is rejected or executed by the fallback work item.
+     *
+     * @param rate the rate limit checked after the cache or
+     * <code>null</code>.
+     * @param lookup <code>false</code> if the cache was already checked by
+     * the caller.
+     * @return the result.
+     * @throws java.lang.Exception if the execution fails.
+     */
+    private static Map<String, Object> invoke(final ProcessServiceExecutor executor, ProcessServiceRate rate, boolean lookup, String deploymentId, String processId, Map<String, Object> parameters, String itemName, long processInstanceId) throws Exception {
+        if (executor.getBatch() != null) {
+            acquire(executor, rate);
+            ExecutionData data = new ExecutionDataImpl(deploymentId, parameters, itemName, processInstanceId);
+            List<Map<String, Object>> result = BatchExecutionService.execute(executor, Collections.singletonList(data));
+            return result.get(0);
+        }
+
+        // cached result
+        ProcessServiceCache cache = executor.getCache();
+        Object cacheKey = null;
+        if (cache != null) {
+            cacheKey = cache.createKey(parameters);
+            Map<String, Object> cached = lookup ? cache.get(cacheKey) : null;
+            if (cached != null) {
+                return ProcessServiceCache.isNullResult(cached) ? null : cached;
+            }
+        }
+
+        // rate limit
+        acquire(executor, rate);
+
+        // circuit breaker
+        ProcessServiceCircuit circuit = executor.getCircuit();
+        int permit = ProcessServiceCircuit.CLOSED;
+        if (circuit != null) {
+            permit = circuit.acquire();
+            if (permit == ProcessServiceCircuit.OPEN) {
+                ProcessServiceExecutor fallback = circuit.getFallback();
+                if (fallback == null) {
+                    throw new CircuitOpenException(executor.getId(), circuit.getRetryAfter());
+                }
+                return invoke(fallback, null, true, deploymentId, processId, parameters, itemName, processInstanceId);
+            }
+        }
+
+        // concurrency limit
+        ProcessServiceLimit limit = executor.getLimit();
+        boolean acquired = false;
+        try {
+            acquired = limit == null || limit.acquire();
+        } finally {
+            // the probe permit of the half open circuit is returned also if
+            // the wait for the limit is interrupted
+            if (!acquired && circuit != null) {
+                circuit.cancel(permit);
+            }
+        }
+        if (!acquired) {
+            throw new RejectedExecutionException("The concurrency limit " + limit.getLimit() + " of the work item " + executor.getId() + " is reached.");
+        }
+
+        final ProcessServiceMetrics metrics = executor.getMetrics();
+        final long startTime = metrics.start();
+
         Map<String, Object> result = null;
+        boolean success = false;
         try {
-            
+            ProcessExecutionLog.started(executor);
+
             // create the input data
             ExecutionData tmp = null;
             if (executor.isInput()) {
                 tmp = new ExecutionDataImpl(deploymentId, parameters, itemName, processInstanceId);
             }
-            
+
             // execute the method
-            if (executor.isOutput()) {
-                result = (Map<String, Object>) method.invoke(service, tmp);
-            } else {
-                method.invoke(service, tmp);
+            ProcessServiceProvider provider = executor.getProvider();
+            Object service = provider.acquire();
+            ExecutionTimeout timeout = ExecutionTimeout.start(executor.getTimeout());
+            Exception error = null;
+            boolean timedOut = false;
+            try {
+                try {
+                    result = executor.getInvoker().invoke(service, tmp);
+                } catch (Exception ex) {
+                    error = ex;
+                }
+            } finally {
+                // disarm the timeout also for the errors of the method
+                timedOut = timeout != null && timeout.finish();
+                provider.release(service);
+            }
+            if (timedOut) {
+                metrics.timedOut();
+                throw new ProcessTimeoutException(executor.getId(), executor.getTimeout(), error);
             }
+            if (error != null) {
+                throw error;
+            }
+            success = true;
 
-        } catch (IllegalAccessException | IllegalArgumentException ex) {
-            LOGGER.log(Level.SEVERE, "System error by execute the work item handler method", ex);
+        } catch (Exception ex) {
+            ProcessExecutionLog.failed(executor, metrics.failed(startTime), processInstanceId, ex);
             throw ex;
-        } catch (InvocationTargetException e) {
-            LOGGER.log(Level.FINEST, "Error invocation the target method", e);
-            
-            Throwable ex = e.getTargetException();
-            Exception exception;
-            if (ex instanceof Exception) {
-                exception = (Exception) ex;
-            } else {
-                exception = new Exception("Error in execution the work item handler.", ex);
+        } catch (Error ex) {
+            Exception error = new Exception("Error in execution the work item handler.", ex);
+            ProcessExecutionLog.failed(executor, metrics.failed(startTime), processInstanceId, error);
+            throw error;
+        } finally {
+            long latency = System.nanoTime() - startTime;
+            if (limit != null) {
+                limit.release(latency, success);
+            }
+            if (circuit != null) {
+                circuit.record(permit, latency, success);
             }
-            
-            LOGGER.log(Level.SEVERE, "Error by execution the work item handler method", exception);
-            
-            logger.log(Level.INFO, "{0} [{1}s] failed.", new Object[]{method.getName(), geTime(startTime)});
-            throw exception;
-        }
-        
-        logger.log(Level.INFO, "{0} [{1}s] succeed.", new Object[]{method.getName(), geTime(startTime)});
+        }
+
+        ProcessExecutionLog.succeeded(executor, metrics.succeeded(startTime));
+        if (cache != null) {
+            cache.put(cacheKey, result);
+        }
         return result;
     }
     
     /**
-     * Loads the register.
-     * @param classLoader the project class loader.
+     * Reloads the services of the deployment. The running executions finish
+     * with the old services.
+     *
+     * @param deploymentId the deployment id.
      */
-    private static synchronized void loadRegister(ClassLoader classLoader) {
-        if (REGISTER == null) {
-            REGISTER = ProcessServiceRegistryLoader.load(classLoader);
-        }
+    public static void reload(String deploymentId) {
+        ProcessServiceRegistryManager.reload(deploymentId);
     }
-    
+
     /**
-     * Gets the duration from
-     * <code>startTime</code> to now.
+     * Removes the loaded services of the deployment. This method should be
+     * called when the deployment is undeployed.
      *
-     * @param startTime start time.
-     * @return the duration from <code>startTime</code> to now.
+     * @param deploymentId the deployment id.
      */
-    private static double geTime(long startTime) {
-        return (1.0d * (System.nanoTime() - startTime)) / TIME_CONST;
-    }    
+    public static void undeploy(String deploymentId) {
+        ProcessServiceRegistryManager.undeploy(deploymentId);
+    }
+
+    /**
+     * Removes the loaded services of the class loader. This method should be
+     * called when the project class loader is discarded, otherwise the loaded
+     * services keep the class loader.
+     *
+     * @param classLoader the project class loader.
+     */
+    public static void undeploy(ClassLoader classLoader) {
+        ProcessServiceRegistryManager.undeploy(classLoader);
+    }
+
+    /**
+     * The asynchronous execution task. The task completes the callback with
+     * the result of the execution and schedules the retry of the failed
+     * execution by the retry policy of the executor.
+     */
+    private static final class ExecutionTask implements AsyncExecutionTask {
+
+        /**
+         * The project class loader.
+         */
+        private final ClassLoader classLoader;
+
+        /**
+         * The executor.
+         */
+        private final ProcessServiceExecutor executor;
+
+        /**
+         * The deployment id.
+         */
+        private final String deploymentId;
+
+        /**
+         * The process id.
+         */
+        private final String processId;
+
+        /**
+         * The work item parameters.
+         */
+        private final Map<String, Object> parameters;
+
+        /**
+         * The work item name.
+         */
+        private final String itemName;
+
+        /**
+         * The process instance id.
+         */
+        private final long processInstanceId;
+
+        /**
+         * The execution callback.
+         */
+        private final ProcessExecutionCallback callback;
+
+        /**
+         * The number of the attempt.
+         */
+        private int attempt = 1;
+
+        /**
+         * The default constructor.
+         *
+         * @param classLoader the project class loader.
+         * @param executor the executor.
+         * @param deploymentId the deployment id.
+         * @param processId the process id.
+         * @param parameters the work item parameters.
+         * @param itemName the work item name.
+         * @param processInstanceId the process instance id.
+         * @param callback the execution callback.
+         */
+        ExecutionTask(ClassLoader classLoader, ProcessServiceExecutor executor, String deploymentId, String processId, Map<String, Object> parameters, String itemName, long processInstanceId, ProcessExecutionCallback callback) {
+            this.classLoader = classLoader;
+            this.executor = executor;
+            this.deploymentId = deploymentId;
+            this.processId = processId;
+            this.parameters = parameters;
+            this.itemName = itemName;
+            this.processInstanceId = processInstanceId;
+            this.callback = callback;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void run() {
+            Map<String, Object> result;
+            try {
+                result = invoke(executor, null, false, deploymentId, processId, parameters, itemName, processInstanceId);
+            } catch (Exception ex) {
+                ProcessServiceRetry retry = executor.getRetry();
+                if (retry != null && retry.isRetryable(ex, attempt)) {
+                    retry(ex);
+                } else {
+                    callback.failed(ex);
+                }
+                return;
+            } catch (Throwable ex) {
+                // the work item must not stay active in the engine
+                callback.failed(new Exception("Error in execution the work item handler.", ex));
+                return;
+            }
+            try {
+                callback.completed(result);
+            } catch (Exception ex) {
+                LOGGER.log(Level.SEVERE, "Error by completion of the asynchronous work item " + executor.getId(), ex);
+            }
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public void rejected(RejectedExecutionException ex) {
+            callback.failed(ex);
+        }
+
+        /**
+         * Schedules the next attempt after the retry delay. The retry takes
+         * the token of the rate limit.
+         *
+         * @param ex the error of the failed attempt.
+         */
+        void retry(Exception ex) {
+            long delay = executor.getRetry().nextDelay(attempt);
+            ProcessServiceRate rate = executor.getRate();
+            if (rate != null) {
+                delay += rate.reserve();
+            }
+            attempt++;
+            LOGGER.log(Level.INFO, "Retry work item {0} attempt {1} in {2} ms: {3}", new Object[]{executor.getId(), attempt, TimeUnit.NANOSECONDS.toMillis(delay), ex.getMessage()});
+            schedule(delay);
+        }
+
+        /**
+         * Submits the task to the execution backend after the delay. The
+         * callback fails if the backend rejects the task.
+         *
+         * @param delay the delay in nanoseconds.
+         */
+        void schedule(long delay) {
+            AsyncExecutionService.schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        AsyncExecutionService.submit(ExecutionTask.this, classLoader, executor.getConcurrency());
+                    } catch (RejectedExecutionException ex) {
+                        Thread thread = Thread.currentThread();
+                        ClassLoader old = thread.getContextClassLoader();
+                        thread.setContextClassLoader(classLoader);
+                        try {
+                            callback.failed(ex);
+                        } finally {
+                            thread.setContextClassLoader(old);
+                        }
+                    }
+                }
+            }, delay);
+        }
+    }
 }
@@ -16,20 +16,48 @@
 package org.lorislab.jbpm.workitem.runtime.service;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Enumeration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.lorislab.jbpm.workitem.api.annotation.WorkItem;
 import org.lorislab.jbpm.workitem.api.annotation.WorkProcess;
+import org.lorislab.jbpm.workitem.api.processor.WorkItemDefinition;
+import org.lorislab.jbpm.workitem.api.processor.WorkProcessDispatcher;
+import org.lorislab.jbpm.workitem.api.processor.WorkProcessIndex;
 import org.lorislab.jbpm.workitem.api.processor.WorkProcessProcessor;
-import org.lorislab.jbpm.workitem.api.model.ExecutionData;
+import org.lorislab.jbpm.workitem.api.model.ParameterBinding;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceBatchInvoker;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceInvoker;
+import org.lorislab.jbpm.workitem.runtime.invoker.ProcessServiceInvokerFactory;
+import org.lorislab.jbpm.workitem.runtime.invoker.ResultWriter;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceBatch;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCache;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceCircuit;
 import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceLimit;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRate;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRetry;
 import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+import org.lorislab.jbpm.workitem.runtime.provider.ProcessServiceProvider;
+import org.lorislab.jbpm.workitem.runtime.provider.ProcessServiceProviderFactory;
 
 /**
  * The work process loader.
@@ -38,6 +66,45 @@ import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
  */
 public final class ProcessServiceRegistryLoader {
 
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceRegistryLoader.class.getName());
+
+    /**
+     * The work process index system property. The index is used by default.
+     */
+    public static final String PROPERTY_INDEX = "org.lorislab.jbpm.workitem.index";
+
+    /**
+     * The parallel loading system property. The registry is loaded in the
+     * calling thread by default.
+     */
+    public static final String PROPERTY_PARALLEL = "org.lorislab.jbpm.workitem.loader.parallel";
+
+    /**
+     * The parallelism of the parallel loading system property. The default
+     * value is the number of processors.
+     */
+    public static final String PROPERTY_PARALLELISM = "org.lorislab.jbpm.workitem.loader.parallelism";
+
+    /**
+     * The rate limit system property prefix. The property name is followed by
+     * the executor id <code>process/workItem</code>.
+     */
+    public static final String PROPERTY_RATE = "org.lorislab.jbpm.workitem.rate.";
+
+    /**
+     * The primitive types by name.
+     */
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{Boolean.TYPE, Byte.TYPE, Character.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE}) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
     /**
      * The default constructor.
      */
@@ -45,77 +112,548 @@ public final class ProcessServiceRegistryLoader {
         // empty constructor
     }
 
+    /**
+     * Loads the registry. The work items of the classes in the work process
+     * index are created from the index without the annotation scan. The
+     * classes of the services files which are not in the index are scanned.
+     * <p>
+     * In the parallel mode the resources are read and the service classes
+     * are loaded in a fork-join pool. The executors are added to the registry
+     * in the order of the resources and classes, so the registry and the
+     * duplicate registration messages are the same as in the sequential mode.
+     *
+     * @param loader the class loader.
+     * @return the registry.
+     */
     public static ProcessServiceRegistry load(final ClassLoader loader) {
         ProcessServiceRegistry result = new ProcessServiceRegistry();
+        final ProcessServiceInvokerFactory.Mode mode = ProcessServiceInvokerFactory.getMode();
+
+        ForkJoinPool pool = null;
+        if (Boolean.getBoolean(PROPERTY_PARALLEL)) {
+            int parallelism = Integer.getInteger(PROPERTY_PARALLELISM, Runtime.getRuntime().availableProcessors());
+            pool = new ForkJoinPool(Math.max(1, parallelism));
+        }
 
         try {
-            Enumeration<URL> urls = loader.getResources(WorkProcessProcessor.FILE_NAME);
-            if (urls != null) {
-                while (urls.hasMoreElements()) {
-                    URL url = urls.nextElement();
-                    Set<String> classes = loadClassesFromURL(url);
-                    createObject(result, classes);
+            // read the index and services resources
+            final List<URL> indexes = new ArrayList<>();
+            if (Boolean.parseBoolean(System.getProperty(PROPERTY_INDEX, "true"))) {
+                indexes.addAll(Collections.list(loader.getResources(WorkProcessIndex.FILE_NAME)));
+            }
+            final List<URL> services = Collections.list(loader.getResources(WorkProcessProcessor.FILE_NAME));
+
+            Object[] definitions = run(pool, loader, indexes.size(), new Task() {
+                @Override
+                public Object execute(int index) {
+                    return loadIndex(indexes.get(index));
+                }
+            });
+            Object[] classes = run(pool, loader, services.size(), new Task() {
+                @Override
+                public Object execute(int index) {
+                    return loadClassesFromURL(services.get(index));
+                }
+            });
+
+            // create the list of classes in the resource order
+            final List<LoadUnit> units = new ArrayList<>();
+            Set<String> indexed = new HashSet<>();
+            for (Object item : definitions) {
+                @SuppressWarnings("unchecked")
+                Map<String, List<WorkItemDefinition>> tmp = (Map<String, List<WorkItemDefinition>>) item;
+                for (Map.Entry<String, List<WorkItemDefinition>> e : tmp.entrySet()) {
+                    if (indexed.add(e.getKey())) {
+                        units.add(new LoadUnit(e.getKey(), e.getValue()));
+                    }
+                }
+            }
+            for (Object item : classes) {
+                @SuppressWarnings("unchecked")
+                Set<String> tmp = (Set<String>) item;
+                for (String name : tmp) {
+                    if (!indexed.contains(name)) {
+                        units.add(new LoadUnit(name, null));
+                    }
+                }
+            }
+
+            // create the executors and merge them in the class order
+            Object[] executors = run(pool, loader, units.size(), new Task() {
+                @Override
+                public Object execute(int index) {
+                    return createExecutors(units.get(index), loader, mode);
+                }
+            });
+            for (Object item : executors) {
+                @SuppressWarnings("unchecked")
+                List<ProcessServiceExecutor> tmp = (List<ProcessServiceExecutor>) item;
+                for (ProcessServiceExecutor executor : tmp) {
+                    result.addExecutor(executor);
                 }
             }
+            linkFallbacks(result);
         } catch (Exception ex) {
-            ex.printStackTrace();
+            LOGGER.log(Level.SEVERE, "Error loading the work process registry", ex);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
 
+        result.freeze();
         return result;
     }
 
-    private static void createObject(final ProcessServiceRegistry registry, final Set<String> classes) {
-        if (classes != null) {
-            for (String name : classes) {
-                try {
-                    Class<?> clazz = Class.forName(name);
-
-                    WorkProcess workProcess = clazz.getAnnotation(WorkProcess.class);
-                    if (workProcess != null) {
-
-                        Object service = clazz.newInstance();
-                        
-                        Method[] methods = clazz.getMethods();
-                        if (methods != null && methods.length > 0) {
-                            for (Method method : methods) {
-                                WorkItem workItem = method.getAnnotation(WorkItem.class);
-                                if (workItem != null) {
-                                    String id = ProcessServiceRegistry.getExecutorId(workProcess.name(), workItem.name());
-                                    
-                                    // method input type
-                                    boolean input = false;
-                                    if (method.getParameterCount() == 1) {
-                                        Class<?> parameter = method.getParameterTypes()[0];
-                                        input = ExecutionData.class.equals(parameter);
-                                    }
-                                    
-                                    // method result type
-                                    boolean output = true;
-                                    Class<?> resultType = method.getReturnType();
-                                    if (resultType == null || resultType.equals(Void.TYPE)) {
-                                        output = false;
-                                    }
-                                    
-                                    // create the executor
-                                    ProcessServiceExecutor executor = new ProcessServiceExecutor(id, workProcess.name(), workItem.name(), service, method, workItem.abort(), input, output);
-                                    registry.addExecutor(executor);                                    
-                                } else {
-                                    System.out.println("No work item annotation specified! Class: " + clazz.getName() + ", method:" + method.getName());
-                                }
+    /**
+     * Gets the fingerprint of the work process resources. The fingerprint
+     * contains the URL and the last modification time of the index and the
+     * services resources.
+     *
+     * @param loader the class loader.
+     * @return the fingerprint.
+     */
+    public static long getFingerprint(final ClassLoader loader) {
+        long result = 1;
+        try {
+            for (String name : new String[]{WorkProcessIndex.FILE_NAME, WorkProcessProcessor.FILE_NAME}) {
+                for (URL url : Collections.list(loader.getResources(name))) {
+                    result = 31 * result + url.toString().hashCode();
+                    result = 31 * result + getLastModified(url);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Error reading the work process resources for the fingerprint", ex);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the last modification time of the resource. The time of the jar
+     * file is used for the jar resource.
+     *
+     * @param url the resource URL.
+     * @return the last modification time or <code>0</code> if not known.
+     */
+    private static long getLastModified(final URL url) {
+        try {
+            URL tmp = url;
+            if ("jar".equals(tmp.getProtocol())) {
+                String path = tmp.getPath();
+                int index = path.indexOf("!/");
+                tmp = new URL(index < 0 ? path : path.substring(0, index));
+            }
+            if ("file".equals(tmp.getProtocol())) {
+                return new File(tmp.toURI()).lastModified();
+            }
+        } catch (MalformedURLException | URISyntaxException | IllegalArgumentException ex) {
+            // not supported URL
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the task for every index. The task runs in the calling thread if
+     * the pool is <code>null</code>.
+     *
+     * @param pool the fork-join pool or <code>null</code>.
+     * @param loader the class loader.
+     * @param size the number of items.
+     * @param task the task.
+     * @return the results in the index order.
+     */
+    private static Object[] run(ForkJoinPool pool, ClassLoader loader, int size, Task task) {
+        Object[] result = new Object[size];
+        if (pool == null || size < 2) {
+            for (int i = 0; i < size; i++) {
+                result[i] = task.execute(i);
+            }
+        } else {
+            pool.invoke(new ParallelTask(task, loader, result, 0, size));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the work process index.
+     *
+     * @param url the work process index URL.
+     * @return the work item definitions by class in the index order.
+     */
+    private static Map<String, List<WorkItemDefinition>> loadIndex(final URL url) {
+        Map<String, List<WorkItemDefinition>> result = new LinkedHashMap<>();
+        List<WorkItemDefinition> definitions;
+        try (InputStream in = url.openStream()) {
+            definitions = WorkProcessIndex.read(in);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Error reading the work process index " + url, ex);
+            return result;
+        }
+
+        // group the definitions by class
+        for (WorkItemDefinition definition : definitions) {
+            List<WorkItemDefinition> items = result.get(definition.getServiceClass());
+            if (items == null) {
+                items = new ArrayList<>();
+                result.put(definition.getServiceClass(), items);
+            }
+            items.add(definition);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the executors of the service class. The class is scanned if
+     * there is no index for the class or the index could not be loaded.
+     *
+     * @param unit the service class.
+     * @param loader the class loader.
+     * @param mode the invoker mode.
+     * @return the list of executors.
+     */
+    private static List<ProcessServiceExecutor> createExecutors(final LoadUnit unit, final ClassLoader loader, final ProcessServiceInvokerFactory.Mode mode) {
+        if (unit.definitions != null) {
+            try {
+                return createIndexExecutors(unit.name, unit.definitions, loader, mode);
+            } catch (Exception ex) {
+                LOGGER.log(Level.SEVERE, "Error loading the class " + unit.name + " from the work process index", ex);
+            }
+        }
+        return createObject(unit.name, loader, mode);
+    }
+
+    /**
+     * Creates the executors of the service class from the work process index.
+     *
+     * @param name the service class name.
+     * @param definitions the work item definitions of the class.
+     * @param loader the class loader.
+     * @param mode the invoker mode.
+     * @return the list of executors.
+     * @throws Exception if the class could not be loaded.
+     */
+    private static List<ProcessServiceExecutor> createIndexExecutors(final String name, final List<WorkItemDefinition> definitions, final ClassLoader loader, final ProcessServiceInvokerFactory.Mode mode) throws Exception {
+        Class<?> clazz = Class.forName(name, true, loader);
+        WorkItemDefinition first = definitions.get(0);
+        ProcessServiceProvider provider = ProcessServiceProviderFactory.create(clazz, first.getScope(), first.getPoolSize());
+        WorkProcessDispatcher dispatcher = null;
+        for (WorkItemDefinition definition : definitions) {
+            if (definition.getDispatcherIndex() >= 0) {
+                dispatcher = loadDispatcher(clazz);
+                break;
+            }
+        }
+
+        List<ProcessServiceExecutor> result = new ArrayList<>();
+        for (WorkItemDefinition definition : definitions) {
+            Method method = clazz.getMethod(definition.getMethod(), loadTypes(definition.getParameterTypes(), loader));
+            ProcessServiceExecutor executor = createExecutor(definition, provider, method, dispatcher, mode);
+            if (executor != null) {
+                result.add(executor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the method parameter types.
+     *
+     * @param names the type names.
+     * @param loader the class loader.
+     * @return the parameter types.
+     * @throws ClassNotFoundException if the type is not found.
+     */
+    private static Class<?>[] loadTypes(final String[] names, final ClassLoader loader) throws ClassNotFoundException {
+        Class<?>[] result = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Class<?> type = PRIMITIVES.get(names[i]);
+            if (type == null) {
+                type = Class.forName(names[i], false, loader);
+            }
+            result[i] = type;
+        }
+        return result;
+    }
+
+    /**
+     * Creates the executors of the scanned service class.
+     *
+     * @param name the service class name.
+     * @param loader the class loader.
+     * @param mode the invoker mode.
+     * @return the list of executors.
+     */
+    private static List<ProcessServiceExecutor> createObject(final String name, final ClassLoader loader, final ProcessServiceInvokerFactory.Mode mode) {
+        List<ProcessServiceExecutor> result = new ArrayList<>();
+        try {
+            Class<?> clazz = Class.forName(name, true, loader);
+
+            WorkProcess workProcess = clazz.getAnnotation(WorkProcess.class);
+            if (workProcess != null) {
+
+                ProcessServiceProvider provider = ProcessServiceProviderFactory.create(clazz, workProcess.scope(), workProcess.poolSize());
+                WorkProcessDispatcher dispatcher = loadDispatcher(clazz);
+
+                Method[] methods = clazz.getMethods();
+                if (methods != null && methods.length > 0) {
+                    for (Method method : methods) {
+                        WorkItem workItem = method.getAnnotation(WorkItem.class);
+                        if (workItem != null) {
+                            WorkItemDefinition definition = createDefinition(workProcess, workItem, method, dispatcher);
+                            ProcessServiceExecutor executor = createExecutor(definition, provider, method, dispatcher, mode);
+                            if (executor != null) {
+                                result.add(executor);
                             }
+                        } else {
+                            LOGGER.log(Level.FINE, "No work item annotation specified! Class: {0}, method: {1}", new Object[]{clazz.getName(), method.getName()});
                         }
-                    } else {
-                        System.out.println("No work process annotation specified! Class: " + clazz.getName());
                     }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
                 }
+            } else {
+                LOGGER.log(Level.WARNING, "No work process annotation specified! Class: {0}", clazz.getName());
             }
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Error loading the work process class " + name, ex);
         }
+        return result;
+    }
+
+    /**
+     * Creates the work item definition from the annotations.
+     *
+     * @param workProcess the work process annotation.
+     * @param workItem the work item annotation.
+     * @param method the service method.
+     * @param dispatcher the generated dispatcher or <code>null</code>.
+     * @return the work item definition.
+     */
+    private static WorkItemDefinition createDefinition(final WorkProcess workProcess, final WorkItem workItem, final Method method, final WorkProcessDispatcher dispatcher) {
+        WorkItemDefinition result = new WorkItemDefinition();
+        result.setServiceClass(method.getDeclaringClass().getName());
+        result.setProcess(workProcess.name());
+        result.setScope(workProcess.scope());
+        result.setPoolSize(workProcess.poolSize());
+        result.setWorkItem(workItem.name());
+        result.setMethod(method.getName());
+        result.setAbort(workItem.abort());
+
+        // method input type
+        result.setInput(method.getParameterCount() > 0);
+
+        // method result type
+        boolean output = true;
+        Class<?> resultType = method.getReturnType();
+        if (resultType == null || resultType.equals(Void.TYPE)) {
+            output = false;
+        }
+        result.setOutput(output);
+
+        result.setAsync(workItem.async());
+        result.setMaxConcurrency(workItem.maxConcurrency());
+        result.setBatch(workItem.batch());
+        result.setBatchWindow(workItem.batchWindow());
+        result.setCache(workItem.cache());
+        result.setCacheKeys(workItem.cacheKeys());
+        result.setCacheTtl(workItem.cacheTtl());
+        result.setCacheSize(workItem.cacheSize());
+        result.setLimit(workItem.limit());
+        result.setAdaptiveLimit(workItem.adaptiveLimit());
+        result.setLimitWait(workItem.limitWait());
+        result.setRate(workItem.rate());
+        result.setRateBurst(workItem.rateBurst());
+        result.setTimeout(workItem.timeout());
+        result.setRetryAttempts(workItem.retryAttempts());
+        result.setRetryDelay(workItem.retryDelay());
+        result.setRetryMaxDelay(workItem.retryMaxDelay());
+        Class<?>[] retryOn = workItem.retryOn();
+        String[] retryNames = new String[retryOn.length];
+        for (int i = 0; i < retryNames.length; i++) {
+            retryNames[i] = retryOn[i].getName();
+        }
+        result.setRetryOn(retryNames);
+        result.setCircuitWindow(workItem.circuitWindow());
+        result.setCircuitFailureRate(workItem.circuitFailureRate());
+        result.setCircuitSlowCall(workItem.circuitSlowCall());
+        result.setCircuitSlowRate(workItem.circuitSlowRate());
+        result.setCircuitOpenTime(workItem.circuitOpenTime());
+        result.setCircuitProbes(workItem.circuitProbes());
+        result.setFallback(workItem.fallback());
+
+        // generated dispatcher method
+        if (dispatcher != null) {
+            result.setDispatcherIndex(dispatcher.getIndex(workItem.name(), workItem.abort()));
+        }
+        return result;
+    }
+
+    /**
+     * Creates the executor for the work item definition.
+     *
+     * @param definition the work item definition.
+     * @param provider the service provider.
+     * @param method the service method.
+     * @param dispatcher the generated dispatcher or <code>null</code>.
+     * @param mode the invoker mode.
+     * @return the executor or <code>null</code> if the method is not valid.
+     * @throws IllegalAccessException if the batch method or the result
+     * property is not accessible.
+     */
+    private static ProcessServiceExecutor createExecutor(final WorkItemDefinition definition, final ProcessServiceProvider provider, final Method method, final WorkProcessDispatcher dispatcher, final ProcessServiceInvokerFactory.Mode mode) throws IllegalAccessException {
+        String id = ProcessServiceRegistry.getExecutorId(definition.getProcess(), definition.getWorkItem());
+
+        // batch method
+        if (definition.getBatch() > 0) {
+            if (!ProcessServiceBatchInvoker.isBatchMethod(method)) {
+                LOGGER.log(Level.SEVERE, "Batch method must have one list parameter! Class: {0}, method: {1}", new Object[]{method.getDeclaringClass().getName(), method.getName()});
+                return null;
+            }
+            ProcessServiceExecutor executor = new ProcessServiceExecutor(id, definition.getProcess(), definition.getWorkItem(), provider, method, definition.isAbort(), false, definition.isOutput(), true, definition.getMaxConcurrency(), null);
+            executor.setBatch(new ProcessServiceBatch<>(definition.getBatch(), definition.getBatchWindow(), new ProcessServiceBatchInvoker(method)));
+            return executor;
+        }
+
+        // method parameter bindings
+        ParameterBinding[] bindings = ParameterBinding.create(method);
+        if (bindings == null) {
+            LOGGER.log(Level.SEVERE, "Work item method parameter must be the execution data or annotated with @Param! Class: {0}, method: {1}", new Object[]{method.getDeclaringClass().getName(), method.getName()});
+            return null;
+        }
+
+        // method result writer
+        ResultWriter writer = null;
+        Class<?> resultType = method.getReturnType();
+        if (!ResultWriter.isMap(resultType)) {
+            if (!ResultWriter.isSupported(resultType)) {
+                LOGGER.log(Level.SEVERE, "Work item method must return the map or the public result class! Class: {0}, method: {1}", new Object[]{method.getDeclaringClass().getName(), method.getName()});
+                return null;
+            }
+            writer = ResultWriter.create(resultType);
+        }
+
+        // create the executor
+        ProcessServiceInvoker invoker = ProcessServiceInvokerFactory.create(mode, method, bindings, writer, dispatcher, definition.getDispatcherIndex());
+        ProcessServiceExecutor executor = new ProcessServiceExecutor(id, definition.getProcess(), definition.getWorkItem(), provider, method, definition.isAbort(), bindings.length > 0, definition.isOutput(), definition.isAsync(), definition.getMaxConcurrency(), invoker);
+        if (definition.isCache()) {
+            executor.setCache(new ProcessServiceCache(definition.getCacheKeys(), definition.getCacheTtl(), definition.getCacheSize()));
+        }
+        if (definition.getLimit() > 0) {
+            executor.setLimit(new ProcessServiceLimit(definition.getLimit(), definition.isAdaptiveLimit(), definition.getLimitWait()));
+        }
+        executor.setRate(createRate(id, definition.getRate(), definition.getRateBurst()));
+        executor.setTimeout(definition.getTimeout());
+        executor.setRetry(createRetry(definition, method));
+        if (definition.getCircuitWindow() > 0) {
+            executor.setCircuit(new ProcessServiceCircuit(id, definition.getCircuitWindow(), definition.getCircuitFailureRate(), definition.getCircuitSlowCall(), definition.getCircuitSlowRate(), definition.getCircuitOpenTime(), definition.getCircuitProbes(), definition.getFallback()));
+        }
+        return executor;
+    }
+
+    /**
+     * Links the circuit breakers of the executors to the fallback executors.
+     * The fallback with the name of the work item itself is the abort
+     * executor of the work item. The fallback executor must not have the
+     * fallback.
+     *
+     * @param registry the registry.
+     */
+    private static void linkFallbacks(final ProcessServiceRegistry registry) {
+        for (ProcessServiceExecutor executor : registry.getExecutors()) {
+            ProcessServiceCircuit circuit = executor.getCircuit();
+            if (circuit == null || circuit.getFallbackName().isEmpty()) {
+                continue;
+            }
+            String name = circuit.getFallbackName();
+            ProcessServiceExecutor fallback;
+            if (name.equals(executor.getWorkItem())) {
+                fallback = registry.getAbort(executor.getProcess(), name);
+            } else {
+                fallback = registry.getExecute(executor.getProcess(), name);
+            }
+            if (fallback == null) {
+                LOGGER.log(Level.WARNING, "Fallback work item {0} of the work item {1} not found", new Object[]{name, executor.getId()});
+            } else if (fallback.getCircuit() != null && !fallback.getCircuit().getFallbackName().isEmpty()) {
+                LOGGER.log(Level.WARNING, "Fallback work item {0} of the work item {1} must not declare the fallback", new Object[]{fallback.getId(), executor.getId()});
+            } else {
+                circuit.setFallback(fallback);
+            }
+        }
+    }
+
+    /**
+     * Creates the retry policy of the executor.
+     *
+     * @param definition the work item definition.
+     * @param method the service method.
+     * @return the retry policy or <code>null</code> if the failed executions
+     * are not retried.
+     */
+    private static ProcessServiceRetry createRetry(final WorkItemDefinition definition, final Method method) {
+        if (definition.getRetryAttempts() <= 1) {
+            return null;
+        }
+        try {
+            Class<?>[] retryOn = loadTypes(definition.getRetryOn(), method.getDeclaringClass().getClassLoader());
+            return new ProcessServiceRetry(definition.getRetryAttempts(), definition.getRetryDelay(), definition.getRetryMaxDelay(), retryOn);
+        } catch (ClassNotFoundException ex) {
+            LOGGER.log(Level.WARNING, "Retry exception class not found! Class: " + method.getDeclaringClass().getName() + ", method: " + method.getName(), ex);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the rate limit of the executor. The system property
+     * <code>org.lorislab.jbpm.workitem.rate.&lt;process&gt;/&lt;workItem&gt;</code>
+     * with the value <code>rate[,burst]</code> overrides the annotation.
+     *
+     * @param id the executor id.
+     * @param rate the annotation rate.
+     * @param burst the annotation burst.
+     * @return the rate limit or <code>null</code> if the executions are not
+     * rate limited.
+     */
+    private static ProcessServiceRate createRate(final String id, final double rate, final int burst) {
+        double tmpRate = rate;
+        int tmpBurst = burst;
+        String value = System.getProperty(PROPERTY_RATE + id);
+        if (value != null) {
+            try {
+                String[] items = value.split(",");
+                tmpRate = Double.parseDouble(items[0].trim());
+                tmpBurst = items.length > 1 ? Integer.parseInt(items[1].trim()) : 0;
+            } catch (NumberFormatException ex) {
+                LOGGER.log(Level.WARNING, "Not valid rate limit " + value + " of the work item " + id, ex);
+            }
+        }
+        if (tmpRate <= 0) {
+            return null;
+        }
+        return new ProcessServiceRate(tmpRate, tmpBurst);
+    }
+
+    /**
+     * Loads the generated dispatcher for the work process class.
+     *
+     * @param clazz the work process class.
+     * @return the dispatcher or <code>null</code> if the class was not compiled
+     * with the work process processor.
+     */
+    private static WorkProcessDispatcher loadDispatcher(final Class<?> clazz) {
+        WorkProcessDispatcher result = null;
+        try {
+            Class<?> tmp = Class.forName(clazz.getName() + WorkProcessProcessor.DISPATCHER_SUFFIX, true, clazz.getClassLoader());
+            if (WorkProcessDispatcher.class.isAssignableFrom(tmp)) {
+                result = (WorkProcessDispatcher) tmp.newInstance();
+            }
+        } catch (ClassNotFoundException ex) {
+            // no generated dispatcher, fallback to reflection
+        } catch (InstantiationException | IllegalAccessException ex) {
+            LOGGER.log(Level.WARNING, "Error creating the dispatcher of the class " + clazz.getName() + ", use reflection", ex);
+        }
+        return result;
     }
 
     private static Set<String> loadClassesFromURL(final URL url) {
-        Set<String> result = new HashSet<>();
+        Set<String> result = new LinkedHashSet<>();
         if (url != null) {
 
             InputStream in = null;
@@ -128,7 +666,7 @@ public final class ProcessServiceRegistryLoader {
                     result.add(serviceClass);
                 }
             } catch (Exception e) {
-                e.printStackTrace();
+                LOGGER.log(Level.WARNING, "Error reading the work process services " + url, e);
             } finally {
                 try {
                     if (reader != null) {
@@ -138,10 +676,126 @@ public final class ProcessServiceRegistryLoader {
                         in.close();
                     }
                 } catch (IOException ex) {
-                    ex.printStackTrace();
+                    LOGGER.log(Level.FINE, "Error closing the work process services " + url, ex);
                 }
             }
         }
         return result;
     }
+
+    /**
+     * The load task for one item.
+     */
+    private interface Task {
+
+        /**
+         * Executes the task for the item.
+         *
+         * @param index the item index.
+         * @return the result.
+         */
+        Object execute(int index);
+    }
+
+    /**
+     * The fork-join task which executes the task for the range of items. The
+     * context class loader of the worker thread is set to the deployment
+     * class loader.
+     */
+    private static final class ParallelTask extends RecursiveAction {
+
+        /**
+         * The UID for this class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The task.
+         */
+        private final Task task;
+
+        /**
+         * The class loader.
+         */
+        private final ClassLoader loader;
+
+        /**
+         * The results.
+         */
+        private final Object[] results;
+
+        /**
+         * The first index.
+         */
+        private final int from;
+
+        /**
+         * The last index (exclusive).
+         */
+        private final int to;
+
+        /**
+         * The default constructor.
+         *
+         * @param task the task.
+         * @param loader the class loader.
+         * @param results the results.
+         * @param from the first index.
+         * @param to the last index (exclusive).
+         */
+        ParallelTask(Task task, ClassLoader loader, Object[] results, int from, int to) {
+            this.task = task;
+            this.loader = loader;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParallelTask(task, loader, results, from, mid), new ParallelTask(task, loader, results, mid, to));
+                return;
+            }
+            Thread thread = Thread.currentThread();
+            ClassLoader tmp = thread.getContextClassLoader();
+            thread.setContextClassLoader(loader);
+            try {
+                results[from] = task.execute(from);
+            } finally {
+                thread.setContextClassLoader(tmp);
+            }
+        }
+    }
+
+    /**
+     * The service class to load.
+     */
+    private static final class LoadUnit {
+
+        /**
+         * The service class name.
+         */
+        private final String name;
+
+        /**
+         * The work item definitions or <code>null</code> to scan the class.
+         */
+        private final List<WorkItemDefinition> definitions;
+
+        /**
+         * The default constructor.
+         *
+         * @param name the service class name.
+         * @param definitions the work item definitions or <code>null</code>.
+         */
+        LoadUnit(String name, List<WorkItemDefinition> definitions) {
+            this.name = name;
+            this.definitions = definitions;
+        }
+    }
 }
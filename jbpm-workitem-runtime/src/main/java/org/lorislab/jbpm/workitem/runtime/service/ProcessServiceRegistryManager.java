@@ -0,0 +1,397 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceExecutor;
+import org.lorislab.jbpm.workitem.runtime.model.ProcessServiceRegistry;
+import org.lorislab.jbpm.workitem.runtime.monitor.MonitoringService;
+
+/**
+ * The process service registry manager. The manager keeps one registry per
+ * deployment and class loader. The lookup of a loaded registry is lock-free
+ * and the repeated lookup of the same deployment does not allocate the key.
+ * The reload builds a new registry and replaces the old one, the running
+ * executions finish with the executors of the old registry.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceRegistryManager {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceRegistryManager.class.getName());
+
+    /**
+     * The deployment registries.
+     */
+    private static final ConcurrentMap<DeploymentKey, Deployment> DEPLOYMENTS = new ConcurrentHashMap<>();
+
+    /**
+     * The deployment of the last lookup.
+     */
+    private static volatile Deployment LAST;
+
+    /**
+     * The default constructor.
+     */
+    private ProcessServiceRegistryManager() {
+        // empty constructor
+    }
+
+    /**
+     * Gets the registry for the deployment.
+     *
+     * @param deploymentId the deployment id.
+     * @param classLoader the deployment class loader.
+     * @return the corresponding registry.
+     */
+    public static ProcessServiceRegistry getRegistry(String deploymentId, ClassLoader classLoader) {
+        ClassLoader loader = classLoader;
+        if (loader == null) {
+            loader = Thread.currentThread().getContextClassLoader();
+        }
+        Deployment last = LAST;
+        if (last != null && last.matches(deploymentId, loader)) {
+            ProcessServiceRegistry result = last.getRegistry();
+            if (result != null) {
+                return result;
+            }
+        }
+        DeploymentKey key = new DeploymentKey(deploymentId, loader);
+        ProcessServiceRegistry result = null;
+        while (result == null) {
+            Deployment deployment = DEPLOYMENTS.get(key);
+            if (deployment == null) {
+                Deployment tmp = new Deployment(deploymentId, loader);
+                deployment = DEPLOYMENTS.putIfAbsent(key, tmp);
+                if (deployment == null) {
+                    deployment = tmp;
+                }
+            }
+            // the deployment closed by the concurrent undeploy is replaced
+            result = deployment.getRegistry();
+            if (result == null) {
+                DEPLOYMENTS.remove(key, deployment);
+            } else {
+                LAST = deployment;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all registries of the deployment.
+     *
+     * @param deploymentId the deployment id.
+     * @return the number of removed registries.
+     */
+    public static int undeploy(String deploymentId) {
+        int result = 0;
+        Iterator<Entry<DeploymentKey, Deployment>> iter = DEPLOYMENTS.entrySet().iterator();
+        while (iter.hasNext()) {
+            Entry<DeploymentKey, Deployment> e = iter.next();
+            DeploymentKey key = e.getKey();
+            if (key.deploymentId == null ? deploymentId == null : key.deploymentId.equals(deploymentId)) {
+                iter.remove();
+                e.getValue().close();
+                result++;
+            }
+        }
+        clearLast();
+        LOGGER.log(Level.INFO, "Undeploy {0} removed {1} registries", new Object[]{deploymentId, result});
+        return result;
+    }
+
+    /**
+     * Reloads the loaded registries of the deployment. The lookups use the old
+     * registry until the new registry is loaded.
+     *
+     * @param deploymentId the deployment id.
+     * @return the number of reloaded registries.
+     */
+    public static int reload(String deploymentId) {
+        int result = 0;
+        for (Entry<DeploymentKey, Deployment> e : DEPLOYMENTS.entrySet()) {
+            DeploymentKey key = e.getKey();
+            if (key.deploymentId == null ? deploymentId == null : key.deploymentId.equals(deploymentId)) {
+                if (e.getValue().reload()) {
+                    result++;
+                }
+            }
+        }
+        LOGGER.log(Level.INFO, "Reload {0} reloaded {1} registries", new Object[]{deploymentId, result});
+        return result;
+    }
+
+    /**
+     * Reloads the registries with changed work process resources.
+     *
+     * @return the number of reloaded registries.
+     */
+    static int reloadChanged() {
+        int result = 0;
+        for (Deployment deployment : DEPLOYMENTS.values()) {
+            if (deployment.isChanged() && deployment.reload()) {
+                LOGGER.log(Level.INFO, "Reload changed deployment {0}", deployment.deploymentId);
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all registries loaded by the class loader.
+     *
+     * @param classLoader the class loader.
+     * @return the number of removed registries.
+     */
+    public static int undeploy(ClassLoader classLoader) {
+        int result = 0;
+        Iterator<Entry<DeploymentKey, Deployment>> iter = DEPLOYMENTS.entrySet().iterator();
+        while (iter.hasNext()) {
+            Entry<DeploymentKey, Deployment> e = iter.next();
+            if (e.getKey().classLoader == classLoader) {
+                iter.remove();
+                e.getValue().close();
+                result++;
+            }
+        }
+        clearLast();
+        return result;
+    }
+
+    /**
+     * Clears the closed deployment of the last lookup, so it does not keep
+     * the class loader.
+     */
+    private static void clearLast() {
+        Deployment last = LAST;
+        if (last != null && last.closed) {
+            LAST = null;
+        }
+    }
+
+    /**
+     * The deployment registry holder.
+     */
+    private static final class Deployment {
+
+        /**
+         * The deployment id.
+         */
+        private final String deploymentId;
+
+        /**
+         * The deployment class loader.
+         */
+        private final ClassLoader classLoader;
+
+        /**
+         * The loaded registry.
+         */
+        private volatile ProcessServiceRegistry registry;
+
+        /**
+         * The fingerprint of the work process resources of the loaded registry.
+         */
+        private volatile long fingerprint;
+
+        /**
+         * The closed flag.
+         */
+        private volatile boolean closed;
+
+        /**
+         * The default constructor.
+         *
+         * @param deploymentId the deployment id.
+         * @param classLoader the deployment class loader.
+         */
+        Deployment(String deploymentId, ClassLoader classLoader) {
+            this.deploymentId = deploymentId;
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * Returns <code>true</code> if the deployment is not closed and
+         * belongs to the deployment id and the class loader.
+         *
+         * @param deploymentId the deployment id.
+         * @param classLoader the class loader.
+         * @return <code>true</code> if the deployment matches.
+         */
+        boolean matches(String deploymentId, ClassLoader classLoader) {
+            return this.classLoader == classLoader && !closed
+                    && (this.deploymentId == null ? deploymentId == null : this.deploymentId.equals(deploymentId));
+        }
+
+        /**
+         * Closes the loaded registry and the service providers.
+         */
+        synchronized void close() {
+            closed = true;
+            if (registry != null) {
+                MonitoringService.unregister(registry);
+                closeProviders(registry);
+            }
+        }
+
+        /**
+         * Reloads the registry. The registry is not reloaded if it was not
+         * loaded yet or the deployment is closed.
+         *
+         * @return <code>true</code> if the registry was reloaded.
+         */
+        synchronized boolean reload() {
+            ProcessServiceRegistry old = registry;
+            if (closed || old == null) {
+                return false;
+            }
+            ProcessServiceRegistry result = load();
+            MonitoringService.unregister(old);
+            MonitoringService.register(deploymentId, result);
+            registry = result;
+            // the closed providers create new instances for the executions
+            // of the old executors which are still running or queued
+            closeProviders(old);
+            return true;
+        }
+
+        /**
+         * Returns <code>true</code> if the work process resources changed
+         * since the registry was loaded.
+         *
+         * @return <code>true</code> if the work process resources changed.
+         */
+        boolean isChanged() {
+            return registry != null && fingerprint != ProcessServiceRegistryLoader.getFingerprint(classLoader);
+        }
+
+        /**
+         * Loads the registry and the fingerprint of the work process resources.
+         *
+         * @return the loaded registry.
+         */
+        private ProcessServiceRegistry load() {
+            if (ProcessServiceReloadService.isEnabled()) {
+                fingerprint = ProcessServiceRegistryLoader.getFingerprint(classLoader);
+                ProcessServiceReloadService.start();
+            }
+            return ProcessServiceRegistryLoader.load(classLoader);
+        }
+
+        /**
+         * Closes the service providers of the registry.
+         *
+         * @param registry the registry.
+         */
+        private static void closeProviders(ProcessServiceRegistry registry) {
+            for (ProcessServiceExecutor executor : registry.getExecutors()) {
+                executor.getProvider().close();
+            }
+        }
+
+        /**
+         * Gets the registry and loads it on the first call. The closed
+         * deployment is not loaded, so no services and monitoring beans are
+         * created for the deployment which was already removed.
+         *
+         * @return the registry or <code>null</code> if the deployment was
+         * closed before the registry was loaded.
+         */
+        ProcessServiceRegistry getRegistry() {
+            ProcessServiceRegistry result = registry;
+            if (result == null) {
+                synchronized (this) {
+                    if (closed) {
+                        return null;
+                    }
+                    result = registry;
+                    if (result == null) {
+                        result = load();
+                        MonitoringService.register(deploymentId, result);
+                        registry = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The deployment key. The class loader is compared by identity.
+     */
+    private static final class DeploymentKey {
+
+        /**
+         * The deployment id.
+         */
+        private final String deploymentId;
+
+        /**
+         * The class loader.
+         */
+        private final ClassLoader classLoader;
+
+        /**
+         * The default constructor.
+         *
+         * @param deploymentId the deployment id.
+         * @param classLoader the class loader.
+         */
+        DeploymentKey(String deploymentId, ClassLoader classLoader) {
+            this.deploymentId = deploymentId;
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(classLoader);
+            if (deploymentId != null) {
+                hash = 31 * hash + deploymentId.hashCode();
+            }
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DeploymentKey)) {
+                return false;
+            }
+            DeploymentKey other = (DeploymentKey) obj;
+            if (classLoader != other.classLoader) {
+                return false;
+            }
+            return deploymentId == null ? other.deploymentId == null : deploymentId.equals(other.deploymentId);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The process service reload service. The service checks the work process
+ * resources of the loaded deployments in the interval and reloads the changed
+ * deployments in the background thread.
+ * <p>
+ * The classes loaded by the deployment class loader can not be replaced, the
+ * reload picks up the changed index and services resources and creates new
+ * service instances.
+ *
+ * @author Andrej_Petras
+ */
+public final class ProcessServiceReloadService {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProcessServiceReloadService.class.getName());
+
+    /**
+     * The check interval in milliseconds system property. The value 0
+     * disables the check.
+     */
+    public static final String PROPERTY_INTERVAL = "org.lorislab.jbpm.workitem.reload.interval";
+
+    /**
+     * The check interval in milliseconds.
+     */
+    private static final long INTERVAL = Math.max(0, Long.getLong(PROPERTY_INTERVAL, 0L));
+
+    /**
+     * The scheduler.
+     */
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * The default constructor.
+     */
+    private ProcessServiceReloadService() {
+        // empty constructor
+    }
+
+    /**
+     * Returns <code>true</code> if the check is enabled.
+     *
+     * @return <code>true</code> if the check is enabled.
+     */
+    public static boolean isEnabled() {
+        return INTERVAL > 0;
+    }
+
+    /**
+     * Starts the check if it is enabled and not started yet.
+     */
+    public static synchronized void start() {
+        if (!isEnabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jbpm-workitem-reload");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    ProcessServiceRegistryManager.reloadChanged();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, "Error reload the changed deployments", ex);
+                }
+            }
+        }, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+        LOGGER.log(Level.INFO, "Reload check started with interval {0} ms", INTERVAL);
+    }
+
+    /**
+     * Stops the check.
+     */
+    public static synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
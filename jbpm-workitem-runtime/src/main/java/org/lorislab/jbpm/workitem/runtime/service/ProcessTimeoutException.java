@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+/**
+ * The exception for the work item execution which did not finish in the
+ * timeout of the work item.
+ *
+ * @author Andrej_Petras
+ */
+public class ProcessTimeoutException extends RuntimeException {
+
+    /**
+     * The UID for this class.
+     */
+    private static final long serialVersionUID = -2311452875069123316L;
+
+    /**
+     * The executor id.
+     */
+    private final String executorId;
+
+    /**
+     * The timeout in milliseconds.
+     */
+    private final long timeout;
+
+    /**
+     * The default constructor.
+     *
+     * @param executorId the executor id.
+     * @param timeout the timeout in milliseconds.
+     * @param cause the error of the interrupted execution or
+     * <code>null</code>.
+     */
+    public ProcessTimeoutException(String executorId, long timeout, Throwable cause) {
+        super("The work item " + executorId + " did not finish in " + timeout + " ms.", cause);
+        this.executorId = executorId;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets the executor id.
+     *
+     * @return the executor id.
+     */
+    public String getExecutorId() {
+        return executorId;
+    }
+
+    /**
+     * Gets the timeout in milliseconds.
+     *
+     * @return the timeout in milliseconds.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+}
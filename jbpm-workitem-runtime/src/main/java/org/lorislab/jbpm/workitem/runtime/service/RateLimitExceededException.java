@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The exception for the work item execution rejected by the rate limit of the
+ * work item.
+ *
+ * @author Andrej_Petras
+ */
+public class RateLimitExceededException extends RejectedExecutionException {
+
+    /**
+     * The UID for this class.
+     */
+    private static final long serialVersionUID = 6390180463528163571L;
+
+    /**
+     * The executor id.
+     */
+    private final String executorId;
+
+    /**
+     * The wait time in milliseconds for the next execution.
+     */
+    private final long retryAfter;
+
+    /**
+     * The default constructor.
+     *
+     * @param executorId the executor id.
+     * @param retryAfter the wait time in milliseconds for the next execution.
+     */
+    public RateLimitExceededException(String executorId, long retryAfter) {
+        super("The rate limit of the work item " + executorId + " is exceeded, retry after " + retryAfter + " ms.");
+        this.executorId = executorId;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets the executor id.
+     *
+     * @return the executor id.
+     */
+    public String getExecutorId() {
+        return executorId;
+    }
+
+    /**
+     * Gets the wait time in milliseconds for the next execution.
+     *
+     * @return the wait time in milliseconds.
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The bounded thread pool execution backend. The pool is configured by the
+ * system properties:
+ * <ul>
+ * <li><code>org.lorislab.jbpm.workitem.async.threads</code> the number of
+ * threads (default number of processors multiplied by 2)</li>
+ * <li><code>org.lorislab.jbpm.workitem.async.queue</code> the queue capacity
+ * (default 1000)</li>
+ * </ul>
+ *
+ * @author Andrej_Petras
+ */
+public final class ThreadPoolExecutionBackend implements ProcessExecutionBackend {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ThreadPoolExecutionBackend.class.getName());
+
+    /**
+     * The backend name.
+     */
+    public static final String NAME = "pool";
+
+    /**
+     * The number of threads system property.
+     */
+    public static final String PROPERTY_THREADS = "org.lorislab.jbpm.workitem.async.threads";
+
+    /**
+     * The queue capacity system property.
+     */
+    public static final String PROPERTY_QUEUE = "org.lorislab.jbpm.workitem.async.queue";
+
+    /**
+     * The default queue capacity.
+     */
+    private static final int DEFAULT_QUEUE = 1000;
+
+    /**
+     * The thread pool.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The queue capacity.
+     */
+    private final int capacity;
+
+    /**
+     * The default constructor.
+     */
+    public ThreadPoolExecutionBackend() {
+        int threads = Integer.getInteger(PROPERTY_THREADS, Runtime.getRuntime().availableProcessors() * 2);
+        int queue = Integer.getInteger(PROPERTY_QUEUE, DEFAULT_QUEUE);
+        capacity = queue;
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queue), new PoolThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        LOGGER.log(Level.INFO, "Asynchronous thread pool created [threads: {0}, queue: {1}]", new Object[]{threads, queue});
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void execute(Runnable task) throws RejectedExecutionException {
+        executor.execute(task);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getQueueCapacity() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The pool thread factory.
+     */
+    private static final class PoolThreadFactory implements ThreadFactory {
+
+        /**
+         * The thread counter.
+         */
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jbpm-workitem-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 Andrej_Petras.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.jbpm.workitem.runtime.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The completion journal test.
+ *
+ * @author Andrej_Petras
+ */
+public class CompletionJournalTest {
+
+    /**
+     * The session id.
+     */
+    private static final long SESSION = 7;
+
+    /**
+     * The class loader.
+     */
+    private static final ClassLoader LOADER = CompletionJournalTest.class.getClassLoader();
+
+    /**
+     * The journal directory.
+     */
+    private File dir;
+
+    /**
+     * Creates the journal directory.
+     *
+     * @throws IOException if the directory could not be created.
+     */
+    @Before
+    public void before() throws IOException {
+        dir = File.createTempFile("journal", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdirs());
+    }
+
+    /**
+     * Deletes the journal directory.
+     */
+    @After
+    public void after() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * Tests the dispatched, the completed and the acknowledged records after
+     * the journal is opened again.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        CompletionJournal journal = CompletionJournal.open(dir, 4096, false);
+        journal.dispatched(SESSION, 1, "deployment", "process", "item", 100, parameters("a", 1));
+        journal.dispatched(SESSION, 2, null, "process", "item", 101, parameters("b", "value"));
+        journal.completed(SESSION, 2, parameters("result", 2L));
+        journal.dispatched(SESSION, 3, "deployment", "process", "item", 102, parameters("c", 3));
+        journal.acknowledged(3);
+        journal.dispatched(SESSION + 1, 4, "deployment", "process", "item", 103, parameters("d", 4));
+        assertEquals(3, journal.getPendingCount());
+        journal.close();
+
+        journal = CompletionJournal.open(dir, 4096, false);
+        try {
+            assertEquals(3, journal.getPendingCount());
+            List<CompletionJournal.Entry> entries = journal.getRecovered(SESSION);
+            assertEquals(2, entries.size());
+            Map<Long, CompletionJournal.Entry> tmp = index(entries);
+
+            CompletionJournal.Entry dispatched = tmp.get(1L);
+            assertFalse(dispatched.isCompleted());
+            assertTrue(dispatched.isExecutable());
+            assertEquals(SESSION, dispatched.getSessionId());
+            assertEquals("deployment", dispatched.getDeploymentId());
+            assertEquals("process", dispatched.getProcessId());
+            assertEquals("item", dispatched.getItemName());
+            assertEquals(100, dispatched.getProcessInstanceId());
+            assertEquals(parameters("a", 1), dispatched.getParameters(LOADER));
+
+            CompletionJournal.Entry completed = tmp.get(2L);
+            assertTrue(completed.isCompleted());
+            assertEquals(parameters("result", 2L), completed.getResult(LOADER));
+
+            assertEquals(1, journal.getRecovered(SESSION + 1).size());
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Tests the damaged record. The reading stops at the damaged record and
+     * the following records are dropped.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testDamagedRecord() throws Exception {
+        CompletionJournal journal = CompletionJournal.open(dir, 4096, false);
+        journal.dispatched(SESSION, 1, "deployment", "process", "item", 100, parameters("a", 1));
+        journal.dispatched(SESSION, 2, "deployment", "process", "item", 101, parameters("b", 2));
+        journal.dispatched(SESSION, 3, "deployment", "process", "item", 102, parameters("c", 3));
+        journal.close();
+
+        File[] segments = dir.listFiles();
+        assertEquals(1, segments.length);
+        try (RandomAccessFile raf = new RandomAccessFile(segments[0], "rw")) {
+            raf.seek(4);
+            int first = raf.readInt();
+            long position = 4 + 8 + first + 8 + 20;
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+
+        journal = CompletionJournal.open(dir, 4096, false);
+        try {
+            List<CompletionJournal.Entry> entries = journal.getRecovered(SESSION);
+            assertEquals(1, entries.size());
+            assertEquals(1, entries.get(0).getWorkItemId());
+            assertEquals(1, journal.getPendingCount());
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Tests the roll of the full segment. The records of the not
+     * acknowledged work items are copied to the new segment.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testRoll() throws Exception {
+        CompletionJournal journal = CompletionJournal.open(dir, 4096, false);
+        for (long i = 1; i <= 500; i++) {
+            journal.dispatched(SESSION, i, "deployment", "process", "item", i, parameters("i", i));
+            if (i % 10 == 0) {
+                journal.completed(SESSION, i, parameters("result", i));
+            } else if (i % 10 != 5) {
+                journal.acknowledged(i);
+            }
+        }
+        assertEquals(100, journal.getPendingCount());
+        assertEquals(1, dir.listFiles().length);
+        journal.close();
+
+        journal = CompletionJournal.open(dir, 4096, false);
+        try {
+            assertEquals(1, dir.listFiles().length);
+            Map<Long, CompletionJournal.Entry> entries = index(journal.getRecovered(SESSION));
+            assertEquals(100, entries.size());
+            for (long i = 5; i <= 500; i += 10) {
+                CompletionJournal.Entry entry = entries.get(i);
+                assertFalse(entry.isCompleted());
+                assertEquals(parameters("i", i), entry.getParameters(LOADER));
+            }
+            for (long i = 10; i <= 500; i += 10) {
+                CompletionJournal.Entry entry = entries.get(i);
+                assertTrue(entry.isCompleted());
+                assertEquals(parameters("result", i), entry.getResult(LOADER));
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Creates the parameters with one value.
+     *
+     * @param name the name.
+     * @param value the value.
+     * @return the parameters.
+     */
+    private static Map<String, Object> parameters(String name, Object value) {
+        Map<String, Object> result = new HashMap<>();
+        result.put(name, value);
+        return result;
+    }
+
+    /**
+     * Creates the entries by the work item id.
+     *
+     * @param entries the list of the entries.
+     * @return the entries by the work item id.
+     */
+    private static Map<Long, CompletionJournal.Entry> index(List<CompletionJournal.Entry> entries) {
+        Map<Long, CompletionJournal.Entry> result = new HashMap<>();
+        for (CompletionJournal.Entry entry : entries) {
+            result.put(entry.getWorkItemId(), entry);
+        }
+        return result;
+    }
+}